@@ -0,0 +1,49 @@
+package com.Maksym.Savienkov.userstestassignmentapp.benchmark;
+
+import com.Maksym.Savienkov.userstestassignmentapp.dto.UserDto;
+import com.Maksym.Savienkov.userstestassignmentapp.model.User;
+import com.Maksym.Savienkov.userstestassignmentapp.repository.UserRepository;
+
+import java.time.LocalDate;
+import java.util.Random;
+
+/**
+ * Deterministic synthetic users shared by the benchmarks. Birthdates are spread uniformly over 60 years
+ * of adult ages, so a one-week range holds roughly {@code count / 3000} users.
+ */
+final class SyntheticUsers {
+    static final LocalDate OLDEST_BIRTHDATE = LocalDate.now().minusYears(78);
+    static final int BIRTHDATE_SPREAD_DAYS = 60 * 365;
+
+    private SyntheticUsers() {
+    }
+
+    static User user(int i, Random random) {
+        return User.builder()
+                .email("email." + i + "@gmail.com")
+                .firstName("Username" + i)
+                .lastName("Lastname" + i)
+                .birthdate(OLDEST_BIRTHDATE.plusDays(random.nextInt(BIRTHDATE_SPREAD_DAYS)))
+                .address(i % 2 == 0 ? "some address " + i : null)
+                .phoneNumber(i % 3 == 0 ? "+340234212131" : null)
+                .build();
+    }
+
+    static UserDto userDto(int i) {
+        return UserDto.builder()
+                .email("email." + i + "@gmail.com")
+                .firstName("Username" + i)
+                .lastName("Lastname" + i)
+                .birthdate(LocalDate.now().minusYears(26))
+                .address("some address " + i)
+                .phoneNumber("+340234212131")
+                .build();
+    }
+
+    static void fill(UserRepository repository, int count) {
+        Random random = new Random(42);
+        for (int i = 0; i < count; i++) {
+            repository.save(user(i, random));
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.Maksym.Savienkov.userstestassignmentapp.benchmark;
+
+import com.Maksym.Savienkov.userstestassignmentapp.dto.UserDto;
+import com.Maksym.Savienkov.userstestassignmentapp.mapper.UserMapper;
+import com.Maksym.Savienkov.userstestassignmentapp.mapper.impl.UserMapperImpl;
+import com.Maksym.Savienkov.userstestassignmentapp.model.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class UserMapperBenchmark {
+    private UserMapper mapper;
+    private User user;
+    private UserDto userDto;
+
+    @Setup
+    public void setUp() {
+        mapper = new UserMapperImpl();
+        user = SyntheticUsers.user(1, new Random(42));
+        userDto = SyntheticUsers.userDto(1);
+    }
+
+    @Benchmark
+    public UserDto toDTO() {
+        return mapper.toDTO(user);
+    }
+
+    @Benchmark
+    public User toModel() {
+        return mapper.toModel(userDto);
+    }
+}
@@ -0,0 +1,58 @@
+package com.Maksym.Savienkov.userstestassignmentapp.benchmark;
+
+import com.Maksym.Savienkov.userstestassignmentapp.dto.UserResponseDto;
+import com.Maksym.Savienkov.userstestassignmentapp.mapper.UserMapper;
+import com.Maksym.Savienkov.userstestassignmentapp.mapper.impl.UserMapperImpl;
+import com.Maksym.Savienkov.userstestassignmentapp.model.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.hateoas.Link;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of a full {@code GET /api/users} page: the {@code data} map with users carrying
+ * their update, patch and delete links.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class UserResponseSerializationBenchmark {
+    @Param({"100", "1000"})
+    private int pageSize;
+
+    private ObjectMapper objectMapper;
+    private Map<String, Object> response;
+
+    @Setup
+    public void setUp() {
+        objectMapper = JsonMapper.builder()
+                .addModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+
+        UserMapper mapper = new UserMapperImpl();
+        Random random = new Random(42);
+        List<UserResponseDto> users = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            User user = SyntheticUsers.user(i, random);
+            user.setId(i);
+            String userUri = "http://localhost/api/users/" + i;
+            users.add(mapper.toResponseDTO(user)
+                    .add(Link.of(userUri, "update"), Link.of(userUri, "patch"), Link.of(userUri, "delete")));
+        }
+        response = Map.of("data", users);
+    }
+
+    @Benchmark
+    public byte[] serializeGetByBirthdateResponse() throws Exception {
+        return objectMapper.writeValueAsBytes(response);
+    }
+}
@@ -0,0 +1,63 @@
+package com.Maksym.Savienkov.userstestassignmentapp.benchmark;
+
+import com.Maksym.Savienkov.userstestassignmentapp.dto.UserDto;
+import com.Maksym.Savienkov.userstestassignmentapp.mapper.impl.UserMapperImpl;
+import com.Maksym.Savienkov.userstestassignmentapp.model.UserPage;
+import com.Maksym.Savienkov.userstestassignmentapp.repository.impl.IndexedUserRepository;
+import com.Maksym.Savienkov.userstestassignmentapp.repository.storage.ColumnarUserStore;
+import com.Maksym.Savienkov.userstestassignmentapp.service.UserService;
+import com.Maksym.Savienkov.userstestassignmentapp.service.UserServiceMetrics;
+import com.Maksym.Savienkov.userstestassignmentapp.validator.UserValidator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class UserServiceBenchmark {
+    @Param({"10000", "1000000"})
+    private int userCount;
+
+    private UserService service;
+    private LocalDate weekFrom;
+    private LocalDate weekTo;
+    private LocalDate decadeFrom;
+    private LocalDate decadeTo;
+    private UserDto patch;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        IndexedUserRepository repository = new IndexedUserRepository(new ColumnarUserStore());
+        SyntheticUsers.fill(repository, userCount);
+        service = new UserService(repository, new UserMapperImpl(), new UserValidator(18),
+                new UserServiceMetrics(new SimpleMeterRegistry()), ForkJoinPool.commonPool());
+
+        weekFrom = SyntheticUsers.OLDEST_BIRTHDATE.plusDays(SyntheticUsers.BIRTHDATE_SPREAD_DAYS / 2);
+        weekTo = weekFrom.plusDays(6);
+        decadeFrom = SyntheticUsers.OLDEST_BIRTHDATE;
+        decadeTo = decadeFrom.plusYears(10);
+        patch = UserDto.builder()
+                .firstName("Patched")
+                .phoneNumber("+340234212132")
+                .build();
+    }
+
+    @Benchmark
+    public UserPage getByBirthdateWeek() {
+        return service.getByBirthdate(weekFrom, weekTo, UserService.MAX_PAGE_LIMIT, null);
+    }
+
+    @Benchmark
+    public UserPage getByBirthdateDecadeFirstPage() {
+        return service.getByBirthdate(decadeFrom, decadeTo, 100, null);
+    }
+
+    @Benchmark
+    public void patch() {
+        service.patch(0, patch);
+    }
+}
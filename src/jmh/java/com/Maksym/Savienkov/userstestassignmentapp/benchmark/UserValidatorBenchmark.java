@@ -0,0 +1,48 @@
+package com.Maksym.Savienkov.userstestassignmentapp.benchmark;
+
+import com.Maksym.Savienkov.userstestassignmentapp.dto.UserDto;
+import com.Maksym.Savienkov.userstestassignmentapp.model.User;
+import com.Maksym.Savienkov.userstestassignmentapp.validator.UserValidator;
+import com.Maksym.Savienkov.userstestassignmentapp.validator.ValidationResult;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class UserValidatorBenchmark {
+    private UserValidator validator;
+    private User validUser;
+    private User invalidUser;
+    private UserDto patch;
+
+    @Setup
+    public void setUp() {
+        validator = new UserValidator(18);
+        validUser = SyntheticUsers.user(1, new Random(42));
+        validUser.setPhoneNumber("+340234212131");
+        invalidUser = validUser.toBuilder()
+                .email("invalid email@te$t..stub")
+                .firstName("not blank")
+                .phoneNumber("234223")
+                .build();
+        patch = SyntheticUsers.userDto(1);
+    }
+
+    @Benchmark
+    public void validateValidUser() {
+        validator.validate(validUser);
+    }
+
+    @Benchmark
+    public ValidationResult checkInvalidUser() {
+        return validator.check(invalidUser);
+    }
+
+    @Benchmark
+    public void validatePatch() {
+        validator.validatePatch(patch);
+    }
+}
@@ -0,0 +1,31 @@
+package com.Maksym.Savienkov.userstestassignmentapp.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Reports the outcome of {@code spring.threads.virtual.enabled}. Spring Boot only switches Tomcat and the
+ * application task executor to virtual threads on Java 21 or later and silently keeps platform threads otherwise.
+ * <p>
+ * Locks in the repository and storage layers are {@link java.util.concurrent.locks.ReentrantLock},
+ * {@link java.util.concurrent.locks.StampedLock} or read-write locks rather than {@code synchronized}, and waits
+ * for the write-ahead log park on a {@link java.util.concurrent.locks.Condition}, so a virtual thread blocked
+ * there unmounts instead of pinning its carrier thread.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadsConfiguration {
+    private static final int MIN_JAVA_VERSION = 21;
+
+    public VirtualThreadsConfiguration() {
+        int javaVersion = Runtime.version().feature();
+        if (javaVersion < MIN_JAVA_VERSION) {
+            log.warn("Virtual threads are enabled but need Java {} or later; running on Java {} with platform threads.",
+                    MIN_JAVA_VERSION, javaVersion);
+        } else {
+            log.info("Handling requests on virtual threads.");
+        }
+    }
+}
@@ -1,7 +1,10 @@
 package com.Maksym.Savienkov.userstestassignmentapp.controller;
 
 import com.Maksym.Savienkov.userstestassignmentapp.exception.ApiError;
+import com.Maksym.Savienkov.userstestassignmentapp.exception.ConflictException;
 import com.Maksym.Savienkov.userstestassignmentapp.exception.InvalidRequestException;
+import com.Maksym.Savienkov.userstestassignmentapp.exception.NotFoundException;
+import com.Maksym.Savienkov.userstestassignmentapp.logging.RateLimitedLogger;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.Marker;
 import org.springframework.core.Ordered;
@@ -11,6 +14,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -19,6 +23,11 @@ import java.util.Map;
 @ControllerAdvice
 @Slf4j
 public class CommonErrorHandler {
+    // Client errors are expected and already logged by the service, so they are logged without a stack trace and
+    // rate limited per kind.
+    private static final RateLimitedLogger clientErrorLog =
+            new RateLimitedLogger(log, RateLimitedLogger.MESSAGES_PER_SECOND, Duration.ofSeconds(1));
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Map<String, List<ApiError>>> handleException(Exception ex) {
         log.error("Something went wrong: ", ex);
@@ -35,7 +44,7 @@ public class CommonErrorHandler {
 
     @ExceptionHandler(InvalidRequestException.class)
     public ResponseEntity<Map<String, List<ApiError>>> handleInvalidRequestException(InvalidRequestException ex) {
-        log.error("Failed to process request due to exception", ex);
+        clientErrorLog.warn("invalid_request", "Failed to process request: {}", ex.getMessage());
         Map<String, List<ApiError>> response = new HashMap<>();
         response.put("errors", List.of(
                     new ApiError(
@@ -46,4 +55,32 @@ public class CommonErrorHandler {
         );
         return ResponseEntity.badRequest().body(response);
     }
+
+    @ExceptionHandler(ConflictException.class)
+    public ResponseEntity<Map<String, List<ApiError>>> handleConflictException(ConflictException ex) {
+        clientErrorLog.warn("conflict", "Failed to process request due to conflict: {}", ex.getMessage());
+        Map<String, List<ApiError>> response = new HashMap<>();
+        response.put("errors", List.of(
+                    new ApiError(
+                        HttpStatus.CONFLICT.value(),
+                        ex.getMessage()
+                    )
+                )
+        );
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+    }
+
+    @ExceptionHandler(NotFoundException.class)
+    public ResponseEntity<Map<String, List<ApiError>>> handleNotFoundException(NotFoundException ex) {
+        clientErrorLog.info("not_found", "Requested resource not found: {}", ex.getMessage());
+        Map<String, List<ApiError>> response = new HashMap<>();
+        response.put("errors", List.of(
+                    new ApiError(
+                        HttpStatus.NOT_FOUND.value(),
+                        ex.getMessage()
+                    )
+                )
+        );
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+    }
 }
@@ -0,0 +1,103 @@
+package com.Maksym.Savienkov.userstestassignmentapp.controller;
+
+import com.Maksym.Savienkov.userstestassignmentapp.dto.UserDto;
+import com.Maksym.Savienkov.userstestassignmentapp.dto.UserResponseDto;
+import com.Maksym.Savienkov.userstestassignmentapp.mapper.UserMapper;
+import com.Maksym.Savienkov.userstestassignmentapp.model.User;
+import com.Maksym.Savienkov.userstestassignmentapp.service.ReactiveUserService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+/**
+ * Reactive variant of {@link UserController}. Handlers return as soon as the publisher is assembled, so no
+ * request thread waits for persistence, and the NDJSON listing is written one user per demand signal, so a slow
+ * client only slows down reading from the birthdate index.
+ * <p>
+ * Users are the same resources as under {@code /api/users}, so locations and links point there.
+ */
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/reactive/users")
+public class ReactiveUserController {
+    private final ReactiveUserService service;
+    private final UserMapper mapper;
+    private final UserLinkFactory linkFactory;
+    private final ObjectMapper objectMapper;
+
+    @PostMapping()
+    public Mono<ResponseEntity<Void>> create(@RequestBody UserDto userDto) {
+        // The response is completed off the request thread, so resolve the location base here.
+        UriComponentsBuilder location = ServletUriComponentsBuilder.fromCurrentContextPath().path("/api/users/{id}");
+        return service.create(userDto)
+                .map(id -> ResponseEntity.created(location.buildAndExpand(id).toUri()).<Void>build());
+    }
+
+    @GetMapping("/{id}")
+    public Mono<UserResponseDto> getById(@PathVariable("id") Integer id) {
+        UserLinkFactory.UserLinks links = linkFactory.forCurrentRequest();
+        return service.getById(id)
+                .map(user -> withLinks(user, links));
+    }
+
+    /**
+     * One NDJSON line per user, written as the client consumes them. Lines are serialized here with the same
+     * mapper as {@link UserController#streamByBirthdate}, because the message converters only write hypermedia
+     * models as HAL.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<String> streamByBirthdate(
+            @RequestParam(value = "from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        UserLinkFactory.UserLinks links = linkFactory.forCurrentRequest();
+        ObjectWriter writer = objectMapper.writer();
+        return service.streamByBirthdate(from, to)
+                .handle((user, sink) -> {
+                    try {
+                        sink.next(writer.writeValueAsString(withLinks(user, links)) + "\n");
+                    } catch (JsonProcessingException e) {
+                        sink.error(e);
+                    }
+                });
+    }
+
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<Void>> update(
+            @PathVariable("id") Integer id,
+            @RequestBody UserDto userDto
+    ) {
+        return service.update(id, userDto)
+                .then(Mono.fromSupplier(() -> ResponseEntity.ok().<Void>build()));
+    }
+
+    @PatchMapping("/{id}")
+    public Mono<ResponseEntity<Void>> patch(
+            @PathVariable("id") Integer id,
+            @RequestBody UserDto userDto
+    ) {
+        return service.patch(id, userDto)
+                .then(Mono.fromSupplier(() -> ResponseEntity.ok().<Void>build()));
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> delete(@PathVariable("id") Integer id) {
+        return service.delete(id)
+                .then(Mono.fromSupplier(() -> ResponseEntity.noContent().<Void>build()));
+    }
+
+    private UserResponseDto withLinks(User user, UserLinkFactory.UserLinks links) {
+        return mapper.toResponseDTO(user).add(links.linksFor(user.getId()));
+    }
+}
@@ -1,26 +1,41 @@
 package com.Maksym.Savienkov.userstestassignmentapp.controller;
 
+import com.Maksym.Savienkov.userstestassignmentapp.dto.UserBatchItemResultDto;
 import com.Maksym.Savienkov.userstestassignmentapp.dto.UserDto;
+import com.Maksym.Savienkov.userstestassignmentapp.dto.UserResponseDto;
+import com.Maksym.Savienkov.userstestassignmentapp.exception.InvalidRequestException;
 import com.Maksym.Savienkov.userstestassignmentapp.mapper.UserMapper;
 import com.Maksym.Savienkov.userstestassignmentapp.model.User;
+import com.Maksym.Savienkov.userstestassignmentapp.model.UserPage;
+import com.Maksym.Savienkov.userstestassignmentapp.model.UserQuery;
 import com.Maksym.Savienkov.userstestassignmentapp.service.UserService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDate;
 import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
-import static org.springframework.hateoas.server.reactive.WebFluxLinkBuilder.methodOn;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Slf4j
 @RestController
@@ -29,6 +44,8 @@ import static org.springframework.hateoas.server.reactive.WebFluxLinkBuilder.met
 public class UserController {
     private final UserService service;
     private final UserMapper mapper;
+    private final UserLinkFactory linkFactory;
+    private final ObjectMapper objectMapper;
 
     @PostMapping()
     public ResponseEntity<Void> create(@RequestBody UserDto userDto) {
@@ -42,46 +59,162 @@ public class UserController {
                 .build();
     }
 
+    @PostMapping(path = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, List<UserBatchItemResultDto>>> createAll(@RequestBody List<UserDto> userDtos) {
+        Map<String, List<UserBatchItemResultDto>> response = new HashMap<>();
+        response.put("data", service.createAll(userDtos));
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * NDJSON variant of {@link #createAll(List)}: one user per line, so large imports need not be wrapped in an array.
+     */
+    @PostMapping(path = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<Map<String, List<UserBatchItemResultDto>>> createAllFromNdjson(InputStream body) throws IOException {
+        List<UserDto> userDtos = new ArrayList<>();
+        try (MappingIterator<UserDto> iterator = objectMapper.readerFor(UserDto.class).readValues(body)) {
+            while (iterator.hasNextValue()) {
+                // Stop reading as soon as the batch is too large instead of buffering the whole body first.
+                if (userDtos.size() == UserService.MAX_BATCH_SIZE) {
+                    throw new InvalidRequestException(
+                            "Failed to create users. Batch cannot contain more than " + UserService.MAX_BATCH_SIZE + " users."
+                    );
+                }
+                userDtos.add(iterator.nextValue());
+            }
+        }
+        return createAll(userDtos);
+    }
+
     @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<Map<String, List<User>>> getByBirthdate(
+    public ResponseEntity<Map<String, Object>> getByBirthdate(
             @RequestParam(value = "from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
-            @RequestParam(value = "to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+            @RequestParam(value = "to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(value = "limit", defaultValue = "${user.page.default-limit}") Integer limit,
+            @RequestParam(value = "cursor", required = false) String cursor
     ) {
-        List<User> users = service.getByBirthdate(from, to);
-        for (User user : users) {
-            user.removeLinks();
-            UserDto userDto = mapper.toDTO(user);
-            user.add(
-                    linkTo(
-                            methodOn(UserController.class).update(user.getId(), userDto)
-                    ).withRel("update")
-            ).add(
-                    linkTo(
-                            methodOn(UserController.class).patch(user.getId(), userDto)
-                    ).withRel("patch")
-            ).add(
-                    linkTo(
-                            methodOn(UserController.class).delete(user.getId())
-                    ).withRel("delete")
-            );
+        UserPage page = service.getByBirthdate(from, to, limit, cursor);
+        UserLinkFactory.UserLinks links = linkFactory.forCurrentRequest();
+        List<UserResponseDto> users = new ArrayList<>(page.getUsers().size());
+        for (User user : page.getUsers()) {
+            users.add(withLinks(user, links));
         }
-        Map<String, List<User>> response = new HashMap<>();
+        Map<String, Object> response = new HashMap<>();
         response.put("data", users);
+        if (page.hasNext()) {
+            response.put("next", page.getNext().encode());
+        }
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * NDJSON variant of {@link #getByBirthdate}: users are serialized straight to the response as they are read
+     * from the birthdate index, so memory per request stays flat regardless of the size of the range.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamByBirthdate(
+            @RequestParam(value = "from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        Stream<User> users = service.streamByBirthdate(from, to);
+        // The body is written on an async thread without access to the current request, so resolve links here.
+        UserLinkFactory.UserLinks links = linkFactory.forCurrentRequest();
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        StreamingResponseBody body = outputStream -> {
+            try (users; JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                Iterator<User> iterator = users.iterator();
+                while (iterator.hasNext()) {
+                    writer.writeValue(generator, withLinks(iterator.next(), links));
+                    generator.writeRaw('\n');
+                }
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    @GetMapping("/by-email/{email}")
+    public ResponseEntity<UserResponseDto> getByEmail(@PathVariable("email") String email) {
+        return ResponseEntity.ok(withLinks(service.getByEmail(email), linkFactory.forCurrentRequest()));
+    }
+
+    @GetMapping("/by-phone")
+    public ResponseEntity<Map<String, List<UserResponseDto>>> getByPhoneNumber(
+            @RequestParam(value = "phoneNumber") String phoneNumber
+    ) {
+        return dataWithLinks(service.getByPhoneNumber(phoneNumber));
+    }
+
+    /**
+     * Name search for support tooling: matches first and last names by word, prefix or a typo away,
+     * ranked best first.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<Map<String, List<UserResponseDto>>> searchByName(
+            @RequestParam(value = "q") String query,
+            @RequestParam(value = "limit", defaultValue = "${user.page.default-limit}") Integer limit
+    ) {
+        return dataWithLinks(service.searchByName(query, limit));
+    }
+
+    /**
+     * Combined filters; every given parameter must match. Parameters that may repeat, or hold comma-separated
+     * values, match any of their values. The repository serves the query from its most selective index.
+     */
+    @GetMapping("/query")
+    public ResponseEntity<Map<String, List<UserResponseDto>>> query(
+            @RequestParam(value = "birthdateFrom", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate birthdateFrom,
+            @RequestParam(value = "birthdateTo", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate birthdateTo,
+            @RequestParam(value = "birthYear", required = false) Set<Integer> birthYears,
+            @RequestParam(value = "birthMonth", required = false) Set<Integer> birthMonths,
+            @RequestParam(value = "emailDomain", required = false) Set<String> emailDomains,
+            @RequestParam(value = "hasAddress", required = false) Boolean hasAddress,
+            @RequestParam(value = "hasPhoneNumber", required = false) Boolean hasPhoneNumber,
+            @RequestParam(value = "addressContains", required = false) String addressContains,
+            @RequestParam(value = "limit", defaultValue = "${user.page.default-limit}") Integer limit
+    ) {
+        UserQuery query = UserQuery.builder()
+                .birthdateFrom(birthdateFrom)
+                .birthdateTo(birthdateTo)
+                .birthYears(birthYears)
+                .birthMonths(birthMonths)
+                .emailDomains(emailDomains)
+                .hasAddress(hasAddress)
+                .hasPhoneNumber(hasPhoneNumber)
+                .addressContains(addressContains)
+                .build();
+        return dataWithLinks(service.query(query, limit));
+    }
+
+    /**
+     * Users with a birthday in the {@code days} days starting at {@code from} (today by default), soonest first.
+     */
+    @GetMapping("/birthdays")
+    public ResponseEntity<Map<String, List<UserResponseDto>>> getUpcomingBirthdays(
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "days", defaultValue = "7") Integer days,
+            @RequestParam(value = "limit", defaultValue = "${user.page.default-limit}") Integer limit
+    ) {
+        LocalDate start = Objects.isNull(from) ? LocalDate.now() : from;
+        return dataWithLinks(service.getUpcomingBirthdays(start, days, limit));
+    }
+
+    /**
+     * Replaces the user with {@code id}, or creates a new user from the body if there is none.
+     */
     @PutMapping("/{id}")
     public ResponseEntity<Void> update(
             @PathVariable Integer id,
             @RequestBody UserDto userDto
     ) {
-        // Mocking no existing users
-        // if(service.existsById(id)) {
-        if (id != 12 && id != 28) {
+        if (service.existsById(id)) {
             service.update(id, userDto);
             return ResponseEntity.ok().build();
         } else {
-            log.info("User with id: " + id + " not found. Creating...");
+            log.info("User with id: {} not found. Creating...", id);
             return create(userDto);
         }
     }
@@ -91,16 +224,13 @@ public class UserController {
             @PathVariable Integer id,
             @RequestBody UserDto userDto
     ) {
-        // Mocking no existing users
-        // if(service.existsById(id)) {
-        if (id != 12 && id != 28) {
+        if (service.existsById(id)) {
             service.patch(id, userDto);
             return ResponseEntity.ok().build();
         } else {
-            log.info("User with id: " + id + " not found.");
+            log.info("User with id: {} not found.", id);
             return ResponseEntity.noContent().build();
         }
-
     }
 
     @DeleteMapping("/{id}")
@@ -113,4 +243,21 @@ public class UserController {
                 .build();
     }
 
+    private UserResponseDto withLinks(User user, UserLinkFactory.UserLinks links) {
+        return mapper.toResponseDTO(user).add(links.linksFor(user.getId()));
+    }
+
+    /**
+     * Wraps {@code users}, each with its links, in the {@code data} field of the response body.
+     */
+    private ResponseEntity<Map<String, List<UserResponseDto>>> dataWithLinks(List<User> users) {
+        UserLinkFactory.UserLinks links = linkFactory.forCurrentRequest();
+        List<UserResponseDto> data = new ArrayList<>(users.size());
+        for (User user : users) {
+            data.add(withLinks(user, links));
+        }
+        Map<String, List<UserResponseDto>> response = new HashMap<>();
+        response.put("data", data);
+        return ResponseEntity.ok(response);
+    }
 }
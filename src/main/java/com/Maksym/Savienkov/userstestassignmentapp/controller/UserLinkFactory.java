@@ -0,0 +1,43 @@
+package com.Maksym.Savienkov.userstestassignmentapp.controller;
+
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.LinkRelation;
+import org.springframework.hateoas.Links;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+/**
+ * Builds the {@code update}, {@code patch} and {@code delete} links of listed users.
+ * <p>
+ * All three point at {@code /api/users/{id}}, so instead of building a {@code methodOn} proxy and resolving the
+ * request URI for every link, the users URI is resolved once per request and each link is a string concatenation.
+ */
+@Component
+public class UserLinkFactory {
+    public static final LinkRelation UPDATE = LinkRelation.of("update");
+    public static final LinkRelation PATCH = LinkRelation.of("patch");
+    public static final LinkRelation DELETE = LinkRelation.of("delete");
+
+    private static final String USERS_PATH = "/api/users/";
+
+    /**
+     * Resolves the users URI from the current request. Must be called on the request thread; the returned
+     * {@link UserLinks} can then be used from any thread.
+     */
+    public UserLinks forCurrentRequest() {
+        return new UserLinks(ServletUriComponentsBuilder.fromCurrentContextPath().path(USERS_PATH).toUriString());
+    }
+
+    public static class UserLinks {
+        private final String usersUri;
+
+        private UserLinks(String usersUri) {
+            this.usersUri = usersUri;
+        }
+
+        public Links linksFor(int id) {
+            String userUri = usersUri + id;
+            return Links.of(Link.of(userUri, UPDATE), Link.of(userUri, PATCH), Link.of(userUri, DELETE));
+        }
+    }
+}
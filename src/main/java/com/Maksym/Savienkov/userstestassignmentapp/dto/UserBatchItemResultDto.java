@@ -0,0 +1,27 @@
+package com.Maksym.Savienkov.userstestassignmentapp.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Outcome of one item of a batch create: the id of the created user, or the reasons it was rejected.
+ */
+@Data
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UserBatchItemResultDto {
+    private int index;
+    private Integer id;
+    private List<String> errors;
+
+    public static UserBatchItemResultDto created(int index, int id) {
+        return new UserBatchItemResultDto(index, id, null);
+    }
+
+    public static UserBatchItemResultDto rejected(int index, List<String> errors) {
+        return new UserBatchItemResultDto(index, null, errors);
+    }
+}
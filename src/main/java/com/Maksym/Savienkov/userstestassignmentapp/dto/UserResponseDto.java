@@ -0,0 +1,28 @@
+package com.Maksym.Savienkov.userstestassignmentapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import org.springframework.hateoas.RepresentationModel;
+
+import java.time.LocalDate;
+
+/**
+ * Short-lived view of a user returned by listing endpoints, together with its links.
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class UserResponseDto extends RepresentationModel<UserResponseDto> {
+    private Integer id;
+    private String email;
+    private String firstName;
+    private String lastName;
+    private LocalDate birthdate;
+    private String address;
+    private String phoneNumber;
+}
@@ -4,4 +4,12 @@ public class AppException extends RuntimeException {
     public AppException(String message) {
         super(message);
     }
+
+    /**
+     * For exceptions that describe an expected outcome rather than a bug, where filling in the stack trace
+     * would only cost time.
+     */
+    protected AppException(String message, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+    }
 }
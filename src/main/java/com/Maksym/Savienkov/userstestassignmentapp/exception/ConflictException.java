@@ -0,0 +1,11 @@
+package com.Maksym.Savienkov.userstestassignmentapp.exception;
+
+public class ConflictException extends AppException {
+    public ConflictException(String message) {
+        super(message, false);
+    }
+
+    protected ConflictException(String message, boolean writableStackTrace) {
+        super(message, writableStackTrace);
+    }
+}
@@ -0,0 +1,15 @@
+package com.Maksym.Savienkov.userstestassignmentapp.exception;
+
+/**
+ * Thrown when an email already belongs to another user. Batch imports hit it once per duplicate,
+ * so no stack trace is captured.
+ */
+public class DuplicateEmailException extends ConflictException {
+    public DuplicateEmailException(String email) {
+        super(message(email), false);
+    }
+
+    public static String message(String email) {
+        return "User with email '" + email + "' already exists.";
+    }
+}
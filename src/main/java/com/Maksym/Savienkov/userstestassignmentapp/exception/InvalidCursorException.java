@@ -0,0 +1,7 @@
+package com.Maksym.Savienkov.userstestassignmentapp.exception;
+
+public class InvalidCursorException extends InvalidRequestException {
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
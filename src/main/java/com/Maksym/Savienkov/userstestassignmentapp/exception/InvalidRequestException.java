@@ -1,7 +1,10 @@
 package com.Maksym.Savienkov.userstestassignmentapp.exception;
 
 public class InvalidRequestException extends AppException {
+    /**
+     * Invalid requests are the client's mistake and are answered with a 400, so no stack trace is captured.
+     */
     public InvalidRequestException(String message) {
-        super(message);
+        super(message, false);
     }
 }
@@ -0,0 +1,7 @@
+package com.Maksym.Savienkov.userstestassignmentapp.exception;
+
+public class NotFoundException extends AppException {
+    public NotFoundException(String message) {
+        super(message, false);
+    }
+}
@@ -0,0 +1,7 @@
+package com.Maksym.Savienkov.userstestassignmentapp.exception;
+
+public class RequestParameterException extends InvalidRequestException {
+    public RequestParameterException(String message) {
+        super(message);
+    }
+}
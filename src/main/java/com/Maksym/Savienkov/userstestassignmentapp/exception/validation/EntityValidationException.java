@@ -9,8 +9,15 @@ public abstract class EntityValidationException extends AppException {
     protected final List<String> messages;
 
     public EntityValidationException() {
-        super("Validation exception.");
-        messages = new ArrayList<>();
+        this(new ArrayList<>());
+    }
+
+    /**
+     * Validation failures are reported to the client, not debugged from logs, so no stack trace is captured.
+     */
+    public EntityValidationException(List<String> messages) {
+        super("Validation exception.", false);
+        this.messages = messages;
     }
 
     public void addMessage(String message) {
@@ -1,7 +1,13 @@
 package com.Maksym.Savienkov.userstestassignmentapp.exception.validation;
 
+import java.util.List;
+
 public class UserValidationException extends EntityValidationException {
     public UserValidationException() {
         super();
     }
+
+    public UserValidationException(List<String> messages) {
+        super(messages);
+    }
 }
@@ -0,0 +1,90 @@
+package com.Maksym.Savienkov.userstestassignmentapp.logging;
+
+import org.slf4j.Logger;
+import org.slf4j.event.Level;
+import org.slf4j.spi.LoggingEventBuilder;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes at most {@code permits} messages per category in every {@code interval} and drops the rest, so a burst of
+ * requests or of bad input costs a bounded amount of logging. The first message let through after a drop says how
+ * many were dropped, and every message carries its category as the {@code category} key-value for structured
+ * appenders.
+ * <p>
+ * Messages use SLF4J {@code {}} placeholders and are only formatted when they are written. Categories are kept
+ * forever, so they must come from a small fixed set such as operation names. Windows are rolled without locking,
+ * so a few extra messages may get through when a window rolls over under contention.
+ */
+public class RateLimitedLogger {
+    /**
+     * Messages per second and category that the services and the error handler let through, so request spikes and
+     * floods of bad input do not turn into logging spikes.
+     */
+    public static final int MESSAGES_PER_SECOND = 10;
+
+    private final Logger logger;
+    private final int permits;
+    private final long intervalNanos;
+    private final ConcurrentMap<String, Window> windows = new ConcurrentHashMap<>();
+
+    public RateLimitedLogger(Logger logger, int permits, Duration interval) {
+        this.logger = logger;
+        this.permits = permits;
+        this.intervalNanos = interval.toNanos();
+    }
+
+    public void info(String category, String format, Object... arguments) {
+        if (logger.isInfoEnabled()) {
+            log(Level.INFO, category, format, arguments);
+        }
+    }
+
+    public void warn(String category, String format, Object... arguments) {
+        if (logger.isWarnEnabled()) {
+            log(Level.WARN, category, format, arguments);
+        }
+    }
+
+    private void log(Level level, String category, String format, Object[] arguments) {
+        long dropped = windows.computeIfAbsent(category, key -> new Window()).acquire(System.nanoTime());
+        if (dropped < 0) {
+            return;
+        }
+        LoggingEventBuilder event = logger.atLevel(level)
+                .setMessage(dropped == 0 ? format : format + " ({} similar messages dropped)")
+                .addKeyValue("category", category);
+        for (Object argument : arguments) {
+            event.addArgument(argument);
+        }
+        if (dropped > 0) {
+            event.addArgument(dropped);
+        }
+        event.log();
+    }
+
+    private class Window {
+        private final AtomicLong start = new AtomicLong(System.nanoTime());
+        private final AtomicInteger used = new AtomicInteger();
+        private final AtomicLong dropped = new AtomicLong();
+
+        /**
+         * Number of messages dropped since the last one written if this one may be written, otherwise -1.
+         */
+        private long acquire(long now) {
+            long windowStart = start.get();
+            if (now - windowStart >= intervalNanos && start.compareAndSet(windowStart, now)) {
+                used.set(0);
+            }
+            if (used.incrementAndGet() <= permits) {
+                return dropped.getAndSet(0);
+            }
+            dropped.incrementAndGet();
+            return -1;
+        }
+    }
+}
@@ -1,10 +1,18 @@
 package com.Maksym.Savienkov.userstestassignmentapp.mapper;
 
 import com.Maksym.Savienkov.userstestassignmentapp.dto.UserDto;
+import com.Maksym.Savienkov.userstestassignmentapp.dto.UserResponseDto;
 import com.Maksym.Savienkov.userstestassignmentapp.model.User;
 
 public interface UserMapper {
     UserDto toDTO(User model);
 
     User toModel(UserDto dto);
+
+    UserResponseDto toResponseDTO(User model);
+
+    /**
+     * Copies every non-null property of {@code dto} onto {@code model}.
+     */
+    void patch(User model, UserDto dto);
 }
@@ -1,12 +1,31 @@
 package com.Maksym.Savienkov.userstestassignmentapp.mapper.impl;
 
 import com.Maksym.Savienkov.userstestassignmentapp.dto.UserDto;
+import com.Maksym.Savienkov.userstestassignmentapp.dto.UserResponseDto;
 import com.Maksym.Savienkov.userstestassignmentapp.mapper.UserMapper;
 import com.Maksym.Savienkov.userstestassignmentapp.model.User;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
 @Component
 public class UserMapperImpl implements UserMapper {
+    /**
+     * One entry per {@link UserDto} property, pairing its getter with the matching {@link User} setter.
+     * Built once, so patching does no reflective lookups per request.
+     */
+    private static final List<PatchField<?>> PATCH_PLAN = List.of(
+            new PatchField<>(UserDto::getEmail, User::setEmail),
+            new PatchField<>(UserDto::getFirstName, User::setFirstName),
+            new PatchField<>(UserDto::getLastName, User::setLastName),
+            new PatchField<>(UserDto::getBirthdate, User::setBirthdate),
+            new PatchField<>(UserDto::getAddress, User::setAddress),
+            new PatchField<>(UserDto::getPhoneNumber, User::setPhoneNumber)
+    );
+
     @Override
     public UserDto toDTO(User model) {
         if (model == null) {
@@ -38,4 +57,37 @@ public class UserMapperImpl implements UserMapper {
                     .build();
         }
     }
+
+    @Override
+    public UserResponseDto toResponseDTO(User model) {
+        if (model == null) {
+            return null;
+        } else {
+            return UserResponseDto.builder()
+                    .id(model.getId())
+                    .email(model.getEmail())
+                    .firstName(model.getFirstName())
+                    .lastName(model.getLastName())
+                    .birthdate(model.getBirthdate())
+                    .address(model.getAddress())
+                    .phoneNumber(model.getPhoneNumber())
+                    .build();
+        }
+    }
+
+    @Override
+    public void patch(User model, UserDto dto) {
+        for (PatchField<?> field : PATCH_PLAN) {
+            field.apply(dto, model);
+        }
+    }
+
+    private record PatchField<T>(Function<UserDto, T> getter, BiConsumer<User, T> setter) {
+        void apply(UserDto dto, User model) {
+            T value = getter.apply(dto);
+            if (Objects.nonNull(value)) {
+                setter.accept(model, value);
+            }
+        }
+    }
 }
@@ -0,0 +1,40 @@
+package com.Maksym.Savienkov.userstestassignmentapp.model;
+
+import com.Maksym.Savienkov.userstestassignmentapp.exception.InvalidCursorException;
+import lombok.Value;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+
+/**
+ * Position in the birthdate ordering of users: the last (birthdate, id) pair a client has already seen.
+ * Clients only ever see the opaque {@link #encode() encoded} form.
+ */
+@Value
+public class BirthdateCursor {
+    LocalDate birthdate;
+    int id;
+
+    public static BirthdateCursor of(User user) {
+        return new BirthdateCursor(user.getBirthdate(), user.getId());
+    }
+
+    public String encode() {
+        String raw = birthdate.toEpochDay() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    public static BirthdateCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+            int separator = raw.indexOf(':');
+            return new BirthdateCursor(
+                    LocalDate.ofEpochDay(Long.parseLong(raw.substring(0, separator))),
+                    Integer.parseInt(raw.substring(separator + 1))
+            );
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException("Cursor '" + cursor + "' is invalid.");
+        }
+    }
+}
@@ -4,16 +4,18 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import org.springframework.hateoas.RepresentationModel;
 
 import java.time.LocalDate;
-import java.util.Objects;
 
+/**
+ * User as stored by the repository. Links are only added to the per-request {@code UserResponseDto},
+ * so stored users carry no per-request state.
+ */
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-@Builder
-public class User extends RepresentationModel<User> {
+@Builder(toBuilder = true)
+public class User {
     private Integer id;
     private String email;
     private String firstName;
@@ -21,24 +23,4 @@ public class User extends RepresentationModel<User> {
     private LocalDate birthdate;
     private String address;
     private String phoneNumber;
-
-    @Override
-    public boolean equals(Object o) {
-        if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
-        User user = (User) o;
-        return Objects.equals(id, user.id) &&
-                Objects.equals(email, user.email) &&
-                Objects.equals(firstName, user.firstName) &&
-                Objects.equals(lastName, user.lastName) &&
-                Objects.equals(birthdate, user.birthdate) &&
-                Objects.equals(address, user.address) &&
-                Objects.equals(phoneNumber, user.phoneNumber) &&
-                Objects.equals(getLinks(), user.getLinks());
-    }
-
-    @Override
-    public int hashCode() {
-        return Objects.hash(id, email, firstName, lastName, birthdate, address, phoneNumber, getLinks());
-    }
 }
@@ -0,0 +1,19 @@
+package com.Maksym.Savienkov.userstestassignmentapp.model;
+
+import lombok.Value;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * One page of users together with the cursor of the next page, or {@code null} when this page is the last one.
+ */
+@Value
+public class UserPage {
+    List<User> users;
+    BirthdateCursor next;
+
+    public boolean hasNext() {
+        return Objects.nonNull(next);
+    }
+}
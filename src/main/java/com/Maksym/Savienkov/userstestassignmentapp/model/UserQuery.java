@@ -0,0 +1,81 @@
+package com.Maksym.Savienkov.userstestassignmentapp.model;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Conjunction of optional user filters; {@code null} or empty fields do not filter. Fields holding several values
+ * match any of them.
+ */
+@Value
+@Builder
+public class UserQuery {
+    LocalDate birthdateFrom;
+    LocalDate birthdateTo;
+    Set<Integer> birthYears;
+    Set<Integer> birthMonths;
+    Set<String> emailDomains;
+    Boolean hasAddress;
+    Boolean hasPhoneNumber;
+    String addressContains;
+
+    public boolean hasBirthdateRange() {
+        return Objects.nonNull(birthdateFrom) && Objects.nonNull(birthdateTo);
+    }
+
+    public boolean matches(User user) {
+        if (hasBirthdateRange() && (Objects.isNull(user.getBirthdate())
+                || user.getBirthdate().isBefore(birthdateFrom) || user.getBirthdate().isAfter(birthdateTo))) {
+            return false;
+        }
+        if (isSet(birthYears) && (Objects.isNull(user.getBirthdate()) || !birthYears.contains(user.getBirthdate().getYear()))) {
+            return false;
+        }
+        if (isSet(birthMonths) && (Objects.isNull(user.getBirthdate())
+                || !birthMonths.contains(user.getBirthdate().getMonthValue()))) {
+            return false;
+        }
+        if (isSet(emailDomains) && !normalizedEmailDomains().contains(emailDomainOf(user.getEmail()))) {
+            return false;
+        }
+        if (Objects.nonNull(hasAddress) && hasAddress != isPresent(user.getAddress())) {
+            return false;
+        }
+        if (Objects.nonNull(hasPhoneNumber) && hasPhoneNumber != isPresent(user.getPhoneNumber())) {
+            return false;
+        }
+        return Objects.isNull(addressContains) || (Objects.nonNull(user.getAddress())
+                && user.getAddress().toLowerCase(Locale.ROOT).contains(addressContains.toLowerCase(Locale.ROOT)));
+    }
+
+    public Set<String> normalizedEmailDomains() {
+        return emailDomains.stream()
+                .map(domain -> domain.toLowerCase(Locale.ROOT))
+                .collect(Collectors.toSet());
+    }
+
+    public static boolean isSet(Set<?> values) {
+        return Objects.nonNull(values) && !values.isEmpty();
+    }
+
+    /**
+     * Lower-cased part of {@code email} after the last {@code @}, or {@code null} if there is none.
+     */
+    public static String emailDomainOf(String email) {
+        if (Objects.isNull(email)) {
+            return null;
+        }
+        int at = email.lastIndexOf('@');
+        return at < 0 ? null : email.substring(at + 1).toLowerCase(Locale.ROOT);
+    }
+
+    public static boolean isPresent(String value) {
+        return Objects.nonNull(value) && !value.isBlank();
+    }
+}
@@ -0,0 +1,34 @@
+package com.Maksym.Savienkov.userstestassignmentapp.repository;
+
+import com.Maksym.Savienkov.userstestassignmentapp.model.BirthdateCursor;
+import com.Maksym.Savienkov.userstestassignmentapp.model.User;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+/**
+ * Non-blocking view of the user repository: nothing happens until the returned publisher is subscribed to, and
+ * subscribers are never blocked on persistence.
+ */
+public interface ReactiveUserRepository {
+    /**
+     * Emits the id of the saved user, or fails with a
+     * {@link com.Maksym.Savienkov.userstestassignmentapp.exception.DuplicateEmailException} if another user
+     * already has the same email, ignoring case.
+     */
+    Mono<Integer> save(User user);
+
+    /**
+     * Emits the user with {@code id}, or completes empty.
+     */
+    Mono<User> getById(Integer id);
+
+    /**
+     * Users born between {@code from} and {@code to} inclusive, ordered by birthdate and id, starting strictly
+     * after {@code after} (may be {@code null}). Users are read from the index only as they are requested.
+     */
+    Flux<User> streamByBirthdate(LocalDate from, LocalDate to, BirthdateCursor after);
+
+    Mono<Void> deleteById(Integer id);
+}
@@ -0,0 +1,83 @@
+package com.Maksym.Savienkov.userstestassignmentapp.repository;
+
+import com.Maksym.Savienkov.userstestassignmentapp.model.BirthdateCursor;
+import com.Maksym.Savienkov.userstestassignmentapp.model.User;
+import com.Maksym.Savienkov.userstestassignmentapp.model.UserQuery;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public interface UserRepository {
+    /**
+     * @throws com.Maksym.Savienkov.userstestassignmentapp.exception.DuplicateEmailException if another user
+     * already has the same email, ignoring case
+     */
+    int save(User user);
+
+    /**
+     * Saves all {@code users} in one operation and returns their ids in the same order. Users whose email is
+     * already taken, including by an earlier user of the same batch, are skipped and get a {@code null} id.
+     */
+    List<Integer> saveAll(List<User> users);
+
+    List<User> getAll();
+
+    User getByid(Integer id);
+
+    /**
+     * The user with {@code email}, ignoring case, or {@code null}.
+     */
+    User getByEmail(String email);
+
+    /**
+     * Users whose phone number has the same digits as {@code phoneNumber}, ordered by id.
+     */
+    List<User> getByPhoneNumber(String phoneNumber);
+
+    /**
+     * Users whose first or last name matches every word of {@code query} exactly, by prefix or within a typo,
+     * best matches first, at most {@code limit} of them.
+     */
+    List<User> searchByName(String query, int limit);
+
+    /**
+     * Users matching every filter of {@code query}, in id order, at most {@code limit} of them.
+     */
+    List<User> query(UserQuery query, int limit);
+
+    /**
+     * Users born between {@code from} and {@code to} inclusive, ordered by birthdate and id,
+     * starting strictly after {@code after} (may be {@code null}) and returning at most {@code limit} users.
+     */
+    default List<User> getByBirthdate(LocalDate from, LocalDate to, BirthdateCursor after, int limit) {
+        try (Stream<User> users = streamByBirthdate(from, to, after)) {
+            return users.limit(limit).collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Lazily iterates users born between {@code from} and {@code to} inclusive in the same order as
+     * {@link #getByBirthdate(LocalDate, LocalDate, BirthdateCursor, int)}, without materializing the result.
+     */
+    Stream<User> streamByBirthdate(LocalDate from, LocalDate to, BirthdateCursor after);
+
+    /**
+     * Users whose birthday falls within {@code days} days starting at {@code from}, soonest first, at most
+     * {@code limit} of them. The window may wrap into the next year; people born on February 29 celebrate on
+     * February 28 in common years.
+     */
+    List<User> getUpcomingBirthdays(LocalDate from, int days, int limit);
+
+    void deleteById(Integer id);
+
+    /**
+     * Completes once reads no longer wait for the repository to finish starting up. Completing or cancelling the
+     * returned future does not affect the repository.
+     */
+    default CompletableFuture<Void> indexesReady() {
+        return CompletableFuture.completedFuture(null);
+    }
+}
@@ -0,0 +1,481 @@
+package com.Maksym.Savienkov.userstestassignmentapp.repository.impl;
+
+import com.Maksym.Savienkov.userstestassignmentapp.exception.DuplicateEmailException;
+import com.Maksym.Savienkov.userstestassignmentapp.model.BirthdateCursor;
+import com.Maksym.Savienkov.userstestassignmentapp.model.User;
+import com.Maksym.Savienkov.userstestassignmentapp.model.UserQuery;
+import com.Maksym.Savienkov.userstestassignmentapp.repository.UserRepository;
+import com.Maksym.Savienkov.userstestassignmentapp.repository.index.BirthdateIndex;
+import com.Maksym.Savienkov.userstestassignmentapp.repository.index.BirthdayCalendar;
+import com.Maksym.Savienkov.userstestassignmentapp.repository.index.BitmapIndex;
+import com.Maksym.Savienkov.userstestassignmentapp.repository.index.EmailIndex;
+import com.Maksym.Savienkov.userstestassignmentapp.repository.index.NameIndex;
+import com.Maksym.Savienkov.userstestassignmentapp.repository.index.PhoneNumberIndex;
+import com.Maksym.Savienkov.userstestassignmentapp.repository.query.AccessPath;
+import com.Maksym.Savienkov.userstestassignmentapp.repository.storage.UserStore;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.PrimitiveIterator;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Thread-safe user repository: records are kept by a {@link UserStore} keyed by id, and secondary indexes
+ * are maintained here on top of it.
+ * <p>
+ * Indexes are updated from the store's change callback, which runs while the user's row is locked, so two
+ * writers of the same user cannot leave stale index entries behind. Emails are unique: {@link #save(User)}
+ * claims the email in the {@link EmailIndex} before writing and fails with a
+ * {@link DuplicateEmailException} if another user owns it.
+ * <p>
+ * Indexes of a store that already holds users are rebuilt on a background thread started by
+ * {@link #startIndexRebuild()} once the bean is initialized, so a persistent store is serving reads by id right
+ * after a restart. Everything that needs an index, including writes, waits for the rebuild to finish.
+ */
+@Slf4j
+@Repository
+public class IndexedUserRepository implements UserRepository, MeterBinder {
+    private final UserStore store;
+    private final AtomicInteger idGenerator = new AtomicInteger();
+    private final BirthdateIndex birthdateIndex = new BirthdateIndex();
+    private final EmailIndex emailIndex = new EmailIndex();
+    private final PhoneNumberIndex phoneNumberIndex = new PhoneNumberIndex();
+    private final NameIndex nameIndex = new NameIndex();
+    private final BitmapIndex<Boolean> userIndex = new BitmapIndex<>();
+    private final BitmapIndex<String> emailDomainIndex = new BitmapIndex<>();
+    private final BitmapIndex<Boolean> addressPresenceIndex = new BitmapIndex<>();
+    private final BitmapIndex<Boolean> phoneNumberPresenceIndex = new BitmapIndex<>();
+    private final BitmapIndex<Integer> birthYearIndex = new BitmapIndex<>();
+    private final BitmapIndex<Integer> birthMonthIndex = new BitmapIndex<>();
+    private final BitmapIndex<Integer> birthdayIndex = new BitmapIndex<>();
+    private final CompletableFuture<Void> indexes;
+    private volatile Thread rebuild;
+
+    public IndexedUserRepository(UserStore store) {
+        this.store = store;
+        // There is nothing to rebuild for an empty store.
+        indexes = store.size() == 0 ? CompletableFuture.completedFuture(null) : new CompletableFuture<>();
+    }
+
+    /**
+     * Starts rebuilding the indexes from the store unless they are already complete. Called by the container once
+     * the repository is constructed, so the rebuild thread never sees a partly constructed instance.
+     */
+    @PostConstruct
+    public synchronized void startIndexRebuild() {
+        if (indexes.isDone() || Objects.nonNull(rebuild)) {
+            return;
+        }
+        rebuild = new Thread(this::rebuildIndexes, "user-index-rebuild");
+        rebuild.setDaemon(true);
+        rebuild.start();
+    }
+
+    /**
+     * Interrupts a rebuild that is still running; anything waiting for the indexes then fails instead of hanging.
+     */
+    @PreDestroy
+    public synchronized void stopIndexRebuild() {
+        if (Objects.nonNull(rebuild)) {
+            rebuild.interrupt();
+        }
+    }
+
+    @Override
+    public int save(User user) {
+        Objects.requireNonNull(user, "User cannot be null.");
+        awaitIndexes();
+        if (Objects.isNull(user.getId())) {
+            user.setId(idGenerator.getAndIncrement());
+        } else {
+            reserveId(user.getId());
+        }
+        String email = user.getEmail();
+        boolean claimed = emailIndex.claim(email, user.getId());
+        try {
+            store.put(user, this::onChange);
+        } catch (RuntimeException e) {
+            releaseIfUnused(claimed, email, user.getId());
+            throw e;
+        }
+        return user.getId();
+    }
+
+    @Override
+    public List<Integer> saveAll(List<User> users) {
+        awaitIndexes();
+        // Hand out one contiguous block of ids for the whole batch instead of one atomic increment per user.
+        int newUsers = (int) users.stream().filter(user -> Objects.isNull(user.getId())).count();
+        int nextId = idGenerator.getAndAdd(newUsers);
+
+        List<Integer> ids = new ArrayList<>(users.size());
+        List<User> accepted = new ArrayList<>(users.size());
+        List<Boolean> claimed = new ArrayList<>(users.size());
+        try {
+            for (User user : users) {
+                Objects.requireNonNull(user, "User cannot be null.");
+                if (Objects.isNull(user.getId())) {
+                    user.setId(nextId++);
+                } else {
+                    reserveId(user.getId());
+                }
+                try {
+                    claimed.add(emailIndex.claim(user.getEmail(), user.getId()));
+                    accepted.add(user);
+                    ids.add(user.getId());
+                } catch (DuplicateEmailException e) {
+                    ids.add(null);
+                }
+            }
+            store.putAll(accepted, this::onChange);
+        } catch (RuntimeException e) {
+            // Users stored before the failure keep their emails; the claims of the rest are given back.
+            for (int i = 0; i < accepted.size(); i++) {
+                User user = accepted.get(i);
+                releaseIfUnused(claimed.get(i), user.getEmail(), user.getId());
+            }
+            throw e;
+        }
+        return ids;
+    }
+
+    @Override
+    public List<User> getAll() {
+        return store.ids()
+                .mapToObj(store::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public User getByid(Integer id) {
+        return store.get(id);
+    }
+
+    @Override
+    public User getByEmail(String email) {
+        awaitIndexes();
+        Integer id = emailIndex.get(email);
+        if (Objects.isNull(id)) {
+            return null;
+        }
+        User user = store.get(id);
+        // The email may have moved on between the index lookup and the read.
+        return Objects.nonNull(user) && email.equalsIgnoreCase(user.getEmail()) ? user : null;
+    }
+
+    @Override
+    public List<User> getByPhoneNumber(String phoneNumber) {
+        awaitIndexes();
+        String key = PhoneNumberIndex.normalize(phoneNumber);
+        // The index is keyed by hashes, so candidates are checked against the stored number.
+        return phoneNumberIndex.get(phoneNumber)
+                .mapToObj(store::get)
+                .filter(user -> Objects.nonNull(user) && Objects.equals(key, PhoneNumberIndex.normalize(user.getPhoneNumber())))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<User> searchByName(String query, int limit) {
+        awaitIndexes();
+        return nameIndex.search(query, limit).stream()
+                .map(store::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<User> query(UserQuery query, int limit) {
+        return plan(query).getIds().get()
+                .mapToObj(store::get)
+                .filter(user -> Objects.nonNull(user) && query.matches(user))
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Picks the access path expected to produce the fewest candidates for {@code query}.
+     * <p>
+     * Every filter on a bitmap-indexed attribute (email domain, address and phone presence, birth year and month,
+     * and the birth years a birthdate range spans) becomes a bitmap, and the bitmaps are intersected smallest
+     * first. The birthdate skip list is used instead when the range is estimated to hold fewer users than that
+     * intersection, with the intersection as a membership filter. Only {@code addressContains} and the exact
+     * birthdate bounds are left to be checked on the candidates.
+     */
+    public AccessPath plan(UserQuery query) {
+        awaitIndexes();
+        RoaringBitmap filter = bitmapFilter(query);
+        AccessPath best = Objects.isNull(filter)
+                ? new AccessPath("full-scan", store.size(), store::ids)
+                : new AccessPath("bitmap", filter.getLongCardinality(), filter::stream);
+        if (query.hasBirthdateRange()) {
+            LocalDate from = query.getBirthdateFrom();
+            LocalDate to = query.getBirthdateTo();
+            long estimate = birthdateIndex.estimate(from, to);
+            if (estimate < best.getEstimatedRows()) {
+                best = new AccessPath("birthdate", estimate, () -> {
+                    IntStream ids = birthdateIndex.range(from, to, null);
+                    return (Objects.isNull(filter) ? ids : ids.filter(filter::contains)).sorted();
+                });
+            }
+        }
+        return best;
+    }
+
+    /**
+     * AND of the bitmaps of all bitmap-indexed filters of {@code query}, or {@code null} if it has none.
+     */
+    private RoaringBitmap bitmapFilter(UserQuery query) {
+        List<RoaringBitmap> bitmaps = new ArrayList<>();
+        if (UserQuery.isSet(query.getEmailDomains())) {
+            bitmaps.add(emailDomainIndex.any(query.normalizedEmailDomains()::contains));
+        }
+        if (Objects.nonNull(query.getHasAddress())) {
+            bitmaps.add(presence(addressPresenceIndex, query.getHasAddress()));
+        }
+        if (Objects.nonNull(query.getHasPhoneNumber())) {
+            bitmaps.add(presence(phoneNumberPresenceIndex, query.getHasPhoneNumber()));
+        }
+        if (UserQuery.isSet(query.getBirthYears())) {
+            bitmaps.add(birthYearIndex.any(query.getBirthYears()::contains));
+        }
+        if (UserQuery.isSet(query.getBirthMonths())) {
+            bitmaps.add(birthMonthIndex.any(query.getBirthMonths()::contains));
+        }
+        if (query.hasBirthdateRange()) {
+            int fromYear = query.getBirthdateFrom().getYear();
+            int toYear = query.getBirthdateTo().getYear();
+            bitmaps.add(birthYearIndex.any(year -> year >= fromYear && year <= toYear));
+        }
+        if (bitmaps.isEmpty()) {
+            return null;
+        }
+        bitmaps.sort(Comparator.comparingLong(RoaringBitmap::getLongCardinality));
+        RoaringBitmap result = bitmaps.get(0);
+        for (int i = 1; i < bitmaps.size() && !result.isEmpty(); i++) {
+            result.and(bitmaps.get(i));
+        }
+        return result;
+    }
+
+    private RoaringBitmap presence(BitmapIndex<Boolean> index, boolean present) {
+        return present ? index.get(true) : RoaringBitmap.andNot(userIndex.get(true), index.get(true));
+    }
+
+    /**
+     * Walks the day buckets in calendar order starting at {@code from}, wrapping from December into January, and
+     * stops as soon as {@code limit} users were found. Everyone in a bucket has the same birthday, so a bucket is
+     * read in id order and nothing needs sorting.
+     */
+    @Override
+    public List<User> getUpcomingBirthdays(LocalDate from, int days, int limit) {
+        awaitIndexes();
+        List<User> users = new ArrayList<>();
+        // A window of 366 days starting in a common year sees its first day again at the end; those users are
+        // already found.
+        boolean[] visited = new boolean[BirthdayCalendar.BUCKETS];
+        for (int day = 0; day < days && users.size() < limit; day++) {
+            LocalDate date = from.plusDays(day);
+            RoaringBitmap ids = birthdays(BirthdayCalendar.bucket(MonthDay.from(date)), visited);
+            if (BirthdayCalendar.isLeapDayStandIn(date)) {
+                ids.or(birthdays(BirthdayCalendar.LEAP_DAY, visited));
+            }
+            PeekableIntIterator iterator = ids.getIntIterator();
+            while (iterator.hasNext() && users.size() < limit) {
+                User user = store.get(iterator.next());
+                // The birthdate may have changed since the bucket was read.
+                if (Objects.nonNull(user) && Objects.nonNull(user.getBirthdate())
+                        && BirthdayCalendar.daysUntilBirthday(user.getBirthdate(), from) == day) {
+                    users.add(user);
+                }
+            }
+        }
+        return users;
+    }
+
+    private RoaringBitmap birthdays(int bucket, boolean[] visited) {
+        if (visited[bucket]) {
+            return new RoaringBitmap();
+        }
+        visited[bucket] = true;
+        return birthdayIndex.get(bucket);
+    }
+
+    @Override
+    public Stream<User> streamByBirthdate(LocalDate from, LocalDate to, BirthdateCursor after) {
+        awaitIndexes();
+        return birthdateIndex.range(from, to, after)
+                .mapToObj(store::get)
+                // The index may briefly run ahead of or behind a concurrent write, so re-check the user itself.
+                .filter(user -> Objects.nonNull(user) && isBornBetween(user, from, to));
+    }
+
+    @Override
+    public void deleteById(Integer id) {
+        awaitIndexes();
+        store.remove(id, this::onChange);
+    }
+
+    /**
+     * Publishes {@code user.repository.size}, the number of stored users, {@code user.index.size} per keyed
+     * secondary index: the number of distinct keys it holds, such as emails, name tokens or email domains, and
+     * {@code user.index.entries} for the birthdate index, which has one entry per user with a birthdate.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("user.repository.size", store, UserStore::size)
+                .description("Number of stored users")
+                .register(registry);
+        Gauge.builder("user.index.entries", birthdateIndex, BirthdateIndex::size)
+                .tag("index", "birthdate")
+                .description("Number of users in a secondary index")
+                .register(registry);
+        bindIndexSize(registry, "email", emailIndex, EmailIndex::size);
+        bindIndexSize(registry, "phone_number", phoneNumberIndex, PhoneNumberIndex::size);
+        bindIndexSize(registry, "name", nameIndex, NameIndex::size);
+        bindIndexSize(registry, "email_domain", emailDomainIndex, BitmapIndex::size);
+        bindIndexSize(registry, "birth_year", birthYearIndex, BitmapIndex::size);
+    }
+
+    private static <T> void bindIndexSize(MeterRegistry registry, String index, T target, ToIntFunction<T> size) {
+        Gauge.builder("user.index.size", target, value -> size.applyAsInt(value))
+                .tag("index", index)
+                .description("Number of distinct keys in a secondary index")
+                .register(registry);
+    }
+
+    @Override
+    public CompletableFuture<Void> indexesReady() {
+        return indexes.copy();
+    }
+
+    /**
+     * Blocks until the indexes reflect every stored user.
+     */
+    public void awaitIndexes() {
+        indexes.join();
+    }
+
+    private void rebuildIndexes() {
+        try {
+            long start = System.nanoTime();
+            PrimitiveIterator.OfInt ids = store.ids().iterator();
+            while (ids.hasNext()) {
+                if (Thread.currentThread().isInterrupted()) {
+                    log.info("Stopped rebuilding the user indexes on shutdown.");
+                    indexes.completeExceptionally(new CancellationException("The user index rebuild was stopped."));
+                    return;
+                }
+                User user = store.get(ids.nextInt());
+                if (Objects.nonNull(user)) {
+                    onChange(null, user);
+                }
+            }
+            idGenerator.set(store.ids().max().orElse(-1) + 1);
+            log.info("Rebuilt the indexes of {} users in {} ms.",
+                    store.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            indexes.complete(null);
+        } catch (RuntimeException e) {
+            log.error("Failed to rebuild the user indexes.", e);
+            indexes.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Keeps the generator ahead of explicitly assigned ids so they are never handed out twice.
+     */
+    private void reserveId(int id) {
+        idGenerator.accumulateAndGet(id + 1, Math::max);
+    }
+
+    /**
+     * Gives back an email claimed for a write that failed, unless the write got far enough to store it.
+     */
+    private void releaseIfUnused(boolean claimed, String email, int id) {
+        User stored = store.get(id);
+        if (claimed && (Objects.isNull(stored) || !email.equalsIgnoreCase(stored.getEmail()))) {
+            emailIndex.release(email, id);
+        }
+    }
+
+    private void onChange(User previous, User current) {
+        int id = Objects.nonNull(current) ? current.getId() : previous.getId();
+        birthdateIndex.replace(
+                id,
+                Objects.isNull(previous) ? null : previous.getBirthdate(),
+                Objects.isNull(current) ? null : current.getBirthdate()
+        );
+        emailIndex.replace(
+                id,
+                Objects.isNull(previous) ? null : previous.getEmail(),
+                Objects.isNull(current) ? null : current.getEmail()
+        );
+        phoneNumberIndex.replace(
+                id,
+                Objects.isNull(previous) ? null : previous.getPhoneNumber(),
+                Objects.isNull(current) ? null : current.getPhoneNumber()
+        );
+        userIndex.replace(id, Objects.nonNull(previous) ? true : null, Objects.nonNull(current) ? true : null);
+        birthYearIndex.replace(
+                id,
+                Objects.isNull(previous) || Objects.isNull(previous.getBirthdate()) ? null : previous.getBirthdate().getYear(),
+                Objects.isNull(current) || Objects.isNull(current.getBirthdate()) ? null : current.getBirthdate().getYear()
+        );
+        birthMonthIndex.replace(
+                id,
+                Objects.isNull(previous) || Objects.isNull(previous.getBirthdate()) ? null : previous.getBirthdate().getMonthValue(),
+                Objects.isNull(current) || Objects.isNull(current.getBirthdate()) ? null : current.getBirthdate().getMonthValue()
+        );
+        birthdayIndex.replace(
+                id,
+                Objects.isNull(previous) || Objects.isNull(previous.getBirthdate()) ? null : BirthdayCalendar.bucket(MonthDay.from(previous.getBirthdate())),
+                Objects.isNull(current) || Objects.isNull(current.getBirthdate()) ? null : BirthdayCalendar.bucket(MonthDay.from(current.getBirthdate()))
+        );
+        emailDomainIndex.replace(
+                id,
+                Objects.isNull(previous) ? null : UserQuery.emailDomainOf(previous.getEmail()),
+                Objects.isNull(current) ? null : UserQuery.emailDomainOf(current.getEmail())
+        );
+        addressPresenceIndex.replace(
+                id,
+                Objects.nonNull(previous) && UserQuery.isPresent(previous.getAddress()) ? true : null,
+                Objects.nonNull(current) && UserQuery.isPresent(current.getAddress()) ? true : null
+        );
+        phoneNumberPresenceIndex.replace(
+                id,
+                Objects.nonNull(previous) && UserQuery.isPresent(previous.getPhoneNumber()) ? true : null,
+                Objects.nonNull(current) && UserQuery.isPresent(current.getPhoneNumber()) ? true : null
+        );
+        nameIndex.replace(
+                id,
+                Objects.isNull(previous) ? Set.of() : NameIndex.tokenize(previous.getFirstName(), previous.getLastName()),
+                Objects.isNull(current) ? Set.of() : NameIndex.tokenize(current.getFirstName(), current.getLastName())
+        );
+    }
+
+    private static boolean isBornBetween(User user, LocalDate from, LocalDate to) {
+        LocalDate birthdate = user.getBirthdate();
+        return Objects.nonNull(birthdate) && !birthdate.isBefore(from) && !birthdate.isAfter(to);
+    }
+}
@@ -0,0 +1,69 @@
+package com.Maksym.Savienkov.userstestassignmentapp.repository.impl;
+
+import com.Maksym.Savienkov.userstestassignmentapp.model.BirthdateCursor;
+import com.Maksym.Savienkov.userstestassignmentapp.model.User;
+import com.Maksym.Savienkov.userstestassignmentapp.repository.ReactiveUserRepository;
+import com.Maksym.Savienkov.userstestassignmentapp.repository.UserRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * {@link ReactiveUserRepository} over the indexed {@link UserRepository}.
+ * <p>
+ * Reads only touch in-memory indexes and the store, so they run on the subscribing thread. Right after startup the
+ * indexes may still be rebuilt; reads are then deferred until {@link UserRepository#indexesReady()} completes and
+ * resume on the bounded elastic scheduler instead of parking the subscriber. Writes may wait for the write-ahead log
+ * to reach disk, so they always run on that scheduler.
+ */
+@Repository
+public class ScheduledReactiveUserRepository implements ReactiveUserRepository {
+    private final UserRepository repository;
+    private final Scheduler scheduler = Schedulers.boundedElastic();
+
+    public ScheduledReactiveUserRepository(UserRepository repository) {
+        this.repository = repository;
+    }
+
+    @Override
+    public Mono<Integer> save(User user) {
+        return Mono.fromCallable(() -> repository.save(user))
+                .subscribeOn(scheduler);
+    }
+
+    @Override
+    public Mono<User> getById(Integer id) {
+        return indexesReady().then(Mono.fromSupplier(() -> repository.getByid(id)));
+    }
+
+    @Override
+    public Flux<User> streamByBirthdate(LocalDate from, LocalDate to, BirthdateCursor after) {
+        // The stream is pulled one user per request signal and closed on completion, error or cancellation.
+        return indexesReady().thenMany(Flux.fromStream(() -> repository.streamByBirthdate(from, to, after)));
+    }
+
+    @Override
+    public Mono<Void> deleteById(Integer id) {
+        return Mono.<Void>fromRunnable(() -> repository.deleteById(id))
+                .subscribeOn(scheduler);
+    }
+
+    /**
+     * Completes right away once the indexes are ready, and otherwise on the scheduler when they become ready.
+     */
+    private Mono<Void> indexesReady() {
+        return Mono.defer(() -> {
+            CompletableFuture<Void> ready = repository.indexesReady();
+            if (ready.isDone() && !ready.isCompletedExceptionally()) {
+                return Mono.empty();
+            }
+            // Resume on the scheduler rather than on the thread that finished the rebuild.
+            return Mono.fromCompletionStage(ready).publishOn(scheduler);
+        });
+    }
+}
@@ -0,0 +1,108 @@
+package com.Maksym.Savienkov.userstestassignmentapp.repository.index;
+
+import com.Maksym.Savienkov.userstestassignmentapp.model.BirthdateCursor;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
+/**
+ * Sorted index of user ids by birthdate.
+ * <p>
+ * Every entry packs the birthdate epoch day into the high 32 bits and the user id into the low 32 bits
+ * of a single {@code long}, so entries are ordered by birthdate and then by id, and a date range maps
+ * to one contiguous sub-set of the skip list: range queries cost O(log n + k).
+ * <p>
+ * Counting a range that way would cost as much as reading it, so a histogram of users per birth year is kept
+ * alongside for {@link #estimate(LocalDate, LocalDate)}.
+ */
+public class BirthdateIndex {
+    private final NavigableSet<Long> entries = new ConcurrentSkipListSet<>();
+    private final ConcurrentNavigableMap<Integer, LongAdder> usersPerYear = new ConcurrentSkipListMap<>();
+    private final LongAdder users = new LongAdder();
+
+    public void add(int id, LocalDate birthdate) {
+        if (Objects.nonNull(birthdate) && entries.add(key(birthdate.toEpochDay(), id))) {
+            usersPerYear.computeIfAbsent(birthdate.getYear(), year -> new LongAdder()).increment();
+            users.increment();
+        }
+    }
+
+    public void remove(int id, LocalDate birthdate) {
+        if (Objects.nonNull(birthdate) && entries.remove(key(birthdate.toEpochDay(), id))) {
+            usersPerYear.get(birthdate.getYear()).decrement();
+            users.decrement();
+        }
+    }
+
+    public void replace(int id, LocalDate previousBirthdate, LocalDate birthdate) {
+        if (!Objects.equals(previousBirthdate, birthdate)) {
+            remove(id, previousBirthdate);
+            add(id, birthdate);
+        }
+    }
+
+    /**
+     * Ids of users born between {@code from} and {@code to} inclusive, in (birthdate, id) order,
+     * starting strictly after {@code after} when it is not {@code null}.
+     */
+    public IntStream range(LocalDate from, LocalDate to, BirthdateCursor after) {
+        long lower = key(from.toEpochDay(), 0);
+        long upper = key(to.toEpochDay(), -1);
+        boolean lowerInclusive = true;
+        if (Objects.nonNull(after)) {
+            long afterKey = key(after.getBirthdate().toEpochDay(), after.getId());
+            if (afterKey >= lower) {
+                lower = afterKey;
+                lowerInclusive = false;
+            }
+        }
+        if (lower > upper) {
+            return IntStream.empty();
+        }
+        return entries.subSet(lower, lowerInclusive, upper, true)
+                .stream()
+                .mapToInt(BirthdateIndex::id);
+    }
+
+    /**
+     * Approximate number of users born between {@code from} and {@code to} inclusive, in O(years) time.
+     * Partially covered years are counted by the fraction of their days inside the range.
+     */
+    public long estimate(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            return 0;
+        }
+        double estimate = 0;
+        for (Map.Entry<Integer, LongAdder> entry : usersPerYear.subMap(from.getYear(), true, to.getYear(), true).entrySet()) {
+            LocalDate yearStart = LocalDate.ofYearDay(entry.getKey(), 1);
+            LocalDate yearEnd = yearStart.plusYears(1).minusDays(1);
+            LocalDate start = from.isAfter(yearStart) ? from : yearStart;
+            LocalDate end = to.isBefore(yearEnd) ? to : yearEnd;
+            double covered = (double) (end.toEpochDay() - start.toEpochDay() + 1) / yearStart.lengthOfYear();
+            estimate += entry.getValue().sum() * covered;
+        }
+        return (long) Math.ceil(estimate);
+    }
+
+    /**
+     * Number of indexed users, in O(1) time unlike the size of the skip list.
+     */
+    public int size() {
+        return users.intValue();
+    }
+
+    static long key(long epochDay, int id) {
+        return (epochDay << 32) | Integer.toUnsignedLong(id);
+    }
+
+    static int id(long key) {
+        return (int) key;
+    }
+}
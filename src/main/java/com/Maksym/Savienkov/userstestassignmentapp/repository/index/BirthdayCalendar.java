@@ -0,0 +1,47 @@
+package com.Maksym.Savienkov.userstestassignmentapp.repository.index;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.MonthDay;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Day-of-year arithmetic for birthdays, independent of the birth year.
+ * <p>
+ * A birthday is bucketed by its position in a leap year, so there are 366 buckets and February 29 has one of
+ * its own. In common years February 29 birthdays are celebrated on February 28.
+ */
+public final class BirthdayCalendar {
+    public static final int BUCKETS = 366;
+    public static final int LEAP_DAY = bucket(MonthDay.of(Month.FEBRUARY, 29));
+
+    private static final int LEAP_YEAR = 2000;
+
+    private BirthdayCalendar() {
+    }
+
+    public static int bucket(MonthDay birthday) {
+        return birthday.atYear(LEAP_YEAR).getDayOfYear() - 1;
+    }
+
+    /**
+     * Whether February 29 birthdays are celebrated on {@code date}, which is not itself February 29.
+     */
+    public static boolean isLeapDayStandIn(LocalDate date) {
+        return date.getMonth() == Month.FEBRUARY && date.getDayOfMonth() == 28 && !date.isLeapYear();
+    }
+
+    /**
+     * Days from {@code from} to the next birthday of someone born on {@code birthdate}, {@code 0} if it is on
+     * {@code from} itself.
+     */
+    public static long daysUntilBirthday(LocalDate birthdate, LocalDate from) {
+        MonthDay birthday = MonthDay.from(birthdate);
+        // MonthDay.atYear moves February 29 to February 28 in common years.
+        LocalDate next = birthday.atYear(from.getYear());
+        if (next.isBefore(from)) {
+            next = birthday.atYear(from.getYear() + 1);
+        }
+        return ChronoUnit.DAYS.between(from, next);
+    }
+}
@@ -0,0 +1,110 @@
+package com.Maksym.Savienkov.userstestassignmentapp.repository.index;
+
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * Index of user ids by a low-cardinality attribute value, such as the email domain or the birth month, with one
+ * compressed {@link RoaringBitmap} per value. User ids are dense row ids, so the bitmaps stay small, and filters on
+ * several attributes are answered with bitmap AND/OR instead of checking users one by one.
+ * <p>
+ * Roaring bitmaps are not thread-safe, so every value has its own read-write lock. Readers get a copy taken under
+ * the read lock and can combine it freely; writers of different values never contend. Users whose value is
+ * {@code null} are not indexed.
+ */
+public class BitmapIndex<K> {
+    private final ConcurrentMap<K, Entry> entries = new ConcurrentHashMap<>();
+
+    public void replace(int id, K previousValue, K value) {
+        if (Objects.equals(previousValue, value)) {
+            return;
+        }
+        if (Objects.nonNull(value)) {
+            Entry entry = entries.computeIfAbsent(value, key -> new Entry());
+            entry.lock.writeLock().lock();
+            try {
+                entry.bitmap.add(id);
+            } finally {
+                entry.lock.writeLock().unlock();
+            }
+        }
+        if (Objects.nonNull(previousValue)) {
+            Entry entry = entries.get(previousValue);
+            if (Objects.nonNull(entry)) {
+                entry.lock.writeLock().lock();
+                try {
+                    entry.bitmap.remove(id);
+                } finally {
+                    entry.lock.writeLock().unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * Copy of the ids of users with {@code value}.
+     */
+    public RoaringBitmap get(K value) {
+        Entry entry = entries.get(value);
+        return Objects.isNull(entry) ? new RoaringBitmap() : entry.copy();
+    }
+
+    /**
+     * Ids of users whose value matches {@code values}: the OR of the bitmaps of all matching values.
+     */
+    public RoaringBitmap any(Predicate<K> values) {
+        RoaringBitmap result = new RoaringBitmap();
+        for (Map.Entry<K, Entry> entry : entries.entrySet()) {
+            if (values.test(entry.getKey())) {
+                Entry value = entry.getValue();
+                value.lock.readLock().lock();
+                try {
+                    result.or(value.bitmap);
+                } finally {
+                    value.lock.readLock().unlock();
+                }
+            }
+        }
+        return result;
+    }
+
+    public long count(K value) {
+        Entry entry = entries.get(value);
+        if (Objects.isNull(entry)) {
+            return 0;
+        }
+        entry.lock.readLock().lock();
+        try {
+            return entry.bitmap.getLongCardinality();
+        } finally {
+            entry.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of distinct values indexed so far.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    private static class Entry {
+        private final RoaringBitmap bitmap = new RoaringBitmap();
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+        private RoaringBitmap copy() {
+            lock.readLock().lock();
+            try {
+                return bitmap.clone();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+    }
+}
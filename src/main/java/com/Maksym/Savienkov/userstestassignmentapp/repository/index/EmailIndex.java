@@ -0,0 +1,66 @@
+package com.Maksym.Savienkov.userstestassignmentapp.repository.index;
+
+import com.Maksym.Savienkov.userstestassignmentapp.exception.DuplicateEmailException;
+
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Unique index of user ids by case-insensitive email.
+ * <p>
+ * An email is claimed with a single {@code putIfAbsent} before the user is written, so two writers racing
+ * for the same email cannot both win, and the previous email of a user is only released once the new one
+ * has been written. Neither step takes a lock beyond the map's own bin lock.
+ */
+public class EmailIndex {
+    private final ConcurrentMap<String, Integer> ids = new ConcurrentHashMap<>();
+
+    /**
+     * Makes {@code id} the owner of {@code email}.
+     *
+     * @return {@code true} if the email was free, {@code false} if {@code id} already owned it or it is {@code null}
+     * @throws DuplicateEmailException if another user owns the email
+     */
+    public boolean claim(String email, int id) {
+        if (Objects.isNull(email)) {
+            return false;
+        }
+        Integer owner = ids.putIfAbsent(normalize(email), id);
+        if (Objects.isNull(owner)) {
+            return true;
+        }
+        if (owner != id) {
+            throw new DuplicateEmailException(email);
+        }
+        return false;
+    }
+
+    public void release(String email, int id) {
+        if (Objects.nonNull(email)) {
+            ids.remove(normalize(email), id);
+        }
+    }
+
+    public void replace(int id, String previousEmail, String email) {
+        if (Objects.nonNull(email)) {
+            ids.put(normalize(email), id);
+        }
+        if (Objects.nonNull(previousEmail) && !normalize(previousEmail).equals(normalize(email))) {
+            release(previousEmail, id);
+        }
+    }
+
+    public Integer get(String email) {
+        return ids.get(normalize(email));
+    }
+
+    public int size() {
+        return ids.size();
+    }
+
+    public static String normalize(String email) {
+        return Objects.isNull(email) ? null : email.toLowerCase(Locale.ROOT);
+    }
+}
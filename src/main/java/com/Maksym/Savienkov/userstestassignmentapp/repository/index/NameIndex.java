@@ -0,0 +1,248 @@
+package com.Maksym.Savienkov.userstestassignmentapp.repository.index;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Search index over the words of user names, answering exact, prefix and typo-tolerant queries.
+ * <p>
+ * Names are split into lower-cased words ("tokens"). Each distinct token maps to the ids of the users whose
+ * name contains it, and is also kept in a sorted set, so a prefix is one range scan of that set. For typos,
+ * every token is indexed by its padded trigrams: a token within edit distance {@code k} of the query shares at
+ * least {@code |trigrams(query)| - 4k} of them, since one edit breaks at most three trigrams and a transposition
+ * of two adjacent letters breaks four. Only tokens passing that count are checked with a real edit-distance
+ * computation. Both the sorted set and the trigram lists hold distinct tokens, not users,
+ * so they stay small even with millions of users.
+ */
+public class NameIndex {
+    private static final double EXACT_SCORE = 1.0;
+    private static final int MIN_FUZZY_LENGTH = 3;
+    private static final int MAX_CANDIDATES = 100_000;
+
+    private final ConcurrentMap<String, Set<Integer>> ids = new ConcurrentHashMap<>();
+    private final NavigableSet<String> tokens = new ConcurrentSkipListSet<>();
+    private final ConcurrentMap<String, Set<String>> trigrams = new ConcurrentHashMap<>();
+
+    public void replace(int id, Set<String> previousTokens, Set<String> currentTokens) {
+        for (String token : currentTokens) {
+            if (!previousTokens.contains(token)) {
+                add(id, token);
+            }
+        }
+        for (String token : previousTokens) {
+            if (!currentTokens.contains(token)) {
+                remove(id, token);
+            }
+        }
+    }
+
+    /**
+     * Ids of users whose name has a matching word for every word of {@code query}, best matches first.
+     * A word scores 1 for an exact match, between 0.5 and 1 for a prefix (higher when more of the word is typed)
+     * and below 0.5 for a match within one typo (two for words longer than five characters). Ties are broken by id.
+     */
+    public List<Integer> search(String query, int limit) {
+        Map<Integer, Double> scores = null;
+        for (String word : tokenize(query)) {
+            Map<Integer, Double> wordScores = match(word);
+            if (Objects.isNull(scores)) {
+                scores = wordScores;
+            } else {
+                Map<Integer, Double> intersection = new HashMap<>();
+                for (Map.Entry<Integer, Double> entry : scores.entrySet()) {
+                    Double score = wordScores.get(entry.getKey());
+                    if (Objects.nonNull(score)) {
+                        intersection.put(entry.getKey(), entry.getValue() + score);
+                    }
+                }
+                scores = intersection;
+            }
+            if (scores.isEmpty()) {
+                return List.of();
+            }
+        }
+        if (Objects.isNull(scores)) {
+            return List.of();
+        }
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<Integer, Double>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    public int size() {
+        return ids.size();
+    }
+
+    /**
+     * Distinct lower-cased words of the given names; anything but letters and digits separates words.
+     */
+    public static Set<String> tokenize(String... names) {
+        Set<String> result = new HashSet<>();
+        for (String name : names) {
+            if (Objects.isNull(name)) {
+                continue;
+            }
+            String lower = name.toLowerCase(Locale.ROOT);
+            int start = -1;
+            for (int i = 0; i <= lower.length(); i++) {
+                boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+                if (wordChar && start < 0) {
+                    start = i;
+                } else if (!wordChar && start >= 0) {
+                    result.add(lower.substring(start, i));
+                    start = -1;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Best score per user id for one query word.
+     */
+    private Map<Integer, Double> match(String word) {
+        Map<Integer, Double> scores = new HashMap<>();
+        collect(word, EXACT_SCORE, scores);
+        for (String token : tokens.subSet(word, false, word + Character.MAX_VALUE, false)) {
+            if (scores.size() >= MAX_CANDIDATES) {
+                return scores;
+            }
+            collect(token, 0.5 + 0.5 * word.length() / token.length(), scores);
+        }
+        if (word.length() >= MIN_FUZZY_LENGTH) {
+            int maxEdits = word.length() > 5 ? 2 : 1;
+            for (String token : fuzzyCandidates(word, maxEdits)) {
+                if (scores.size() >= MAX_CANDIDATES) {
+                    return scores;
+                }
+                int distance = editDistance(word, token, maxEdits);
+                if (distance <= maxEdits && !token.startsWith(word)) {
+                    collect(token, 0.5 * (1 - (double) distance / Math.max(word.length(), token.length())), scores);
+                }
+            }
+        }
+        return scores;
+    }
+
+    private void collect(String token, double score, Map<Integer, Double> scores) {
+        for (Integer id : ids.getOrDefault(token, Set.of())) {
+            scores.merge(id, score, Math::max);
+        }
+    }
+
+    private List<String> fuzzyCandidates(String word, int maxEdits) {
+        List<String> wordTrigrams = trigrams(word);
+        // A substitution breaks up to three trigrams, but swapping two adjacent letters breaks every trigram that
+        // covers either of them, which is four.
+        int required = Math.max(1, wordTrigrams.size() - 4 * maxEdits);
+        Map<String, Integer> shared = new HashMap<>();
+        for (String trigram : new HashSet<>(wordTrigrams)) {
+            for (String token : trigrams.getOrDefault(trigram, Set.of())) {
+                shared.merge(token, 1, Integer::sum);
+            }
+        }
+        List<String> candidates = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : shared.entrySet()) {
+            String token = entry.getKey();
+            if (entry.getValue() >= required && Math.abs(token.length() - word.length()) <= maxEdits) {
+                candidates.add(token);
+            }
+        }
+        return candidates;
+    }
+
+    private void add(int id, String token) {
+        // All changes to one token run inside compute calls on its key, so registering a new token and dropping
+        // it with its last user can never interleave.
+        ids.compute(token, (key, owners) -> {
+            Set<Integer> updated = owners;
+            if (Objects.isNull(updated)) {
+                updated = ConcurrentHashMap.newKeySet();
+                tokens.add(key);
+                for (String trigram : trigrams(key)) {
+                    trigrams.computeIfAbsent(trigram, k -> ConcurrentHashMap.newKeySet()).add(key);
+                }
+            }
+            updated.add(id);
+            return updated;
+        });
+    }
+
+    private void remove(int id, String token) {
+        ids.computeIfPresent(token, (key, owners) -> {
+            owners.remove(id);
+            if (!owners.isEmpty()) {
+                return owners;
+            }
+            tokens.remove(key);
+            for (String trigram : trigrams(key)) {
+                Set<String> withTrigram = trigrams.get(trigram);
+                if (Objects.nonNull(withTrigram)) {
+                    withTrigram.remove(key);
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Trigrams of the word padded with two leading blanks and one trailing blank, so short words and
+     * word starts are represented too.
+     */
+    private static List<String> trigrams(String word) {
+        String padded = "  " + word + " ";
+        List<String> result = new ArrayList<>(padded.length() - 2);
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            result.add(padded.substring(i, i + 3));
+        }
+        return result;
+    }
+
+    /**
+     * Levenshtein distance with adjacent transpositions counted as one edit, or {@code max + 1} as soon as
+     * it is known to exceed {@code max}.
+     */
+    static int editDistance(String a, String b, int max) {
+        int[] previousPrevious = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, previousPrevious[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] recycled = previousPrevious;
+            previousPrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+        return Math.min(previous[b.length()], max + 1);
+    }
+}
@@ -0,0 +1,119 @@
+package com.Maksym.Savienkov.userstestassignmentapp.repository.index;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.IntStream;
+
+/**
+ * Hash index of user ids by phone number. Numbers are reduced to their digits, so {@code +(380)96-342-43-54}
+ * and {@code 380963424354} are the same key. Several users may share a number.
+ * <p>
+ * Keys are 64-bit hashes of the digits and values are sorted {@code int[]} of ids, so the index keeps no copy of
+ * the numbers and costs well under a hundred bytes per user. Different numbers may share a hash, so
+ * {@link #get(String)} returns candidates that the caller must check against the stored users.
+ */
+public class PhoneNumberIndex {
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final ConcurrentMap<Long, int[]> ids = new ConcurrentHashMap<>();
+
+    public void replace(int id, String previousPhoneNumber, String phoneNumber) {
+        Long previousKey = key(previousPhoneNumber);
+        Long key = key(phoneNumber);
+        if (Objects.equals(previousKey, key)) {
+            return;
+        }
+        // Arrays are copied on write inside compute calls, so readers always see a complete, sorted array.
+        if (Objects.nonNull(key)) {
+            ids.compute(key, (k, owners) -> add(owners, id));
+        }
+        if (Objects.nonNull(previousKey)) {
+            ids.computeIfPresent(previousKey, (k, owners) -> remove(owners, id));
+        }
+    }
+
+    /**
+     * Ids of users whose phone number may have the same digits as {@code phoneNumber}, in ascending order.
+     */
+    public IntStream get(String phoneNumber) {
+        Long key = key(phoneNumber);
+        int[] owners = Objects.isNull(key) ? null : ids.get(key);
+        return Objects.isNull(owners) ? IntStream.empty() : Arrays.stream(owners);
+    }
+
+    /**
+     * Number of distinct phone number hashes indexed so far.
+     */
+    public int size() {
+        return ids.size();
+    }
+
+    /**
+     * Digits of {@code phoneNumber}, or {@code null} if it has none.
+     */
+    public static String normalize(String phoneNumber) {
+        if (Objects.isNull(phoneNumber)) {
+            return null;
+        }
+        StringBuilder digits = new StringBuilder(phoneNumber.length());
+        for (int i = 0; i < phoneNumber.length(); i++) {
+            char c = phoneNumber.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            }
+        }
+        return digits.isEmpty() ? null : digits.toString();
+    }
+
+    /**
+     * FNV-1a hash of the digits of {@code phoneNumber}, or {@code null} if it has none.
+     */
+    private static Long key(String phoneNumber) {
+        if (Objects.isNull(phoneNumber)) {
+            return null;
+        }
+        long hash = FNV_OFFSET_BASIS;
+        boolean hasDigits = false;
+        for (int i = 0; i < phoneNumber.length(); i++) {
+            char c = phoneNumber.charAt(i);
+            if (c >= '0' && c <= '9') {
+                hash = (hash ^ c) * FNV_PRIME;
+                hasDigits = true;
+            }
+        }
+        return hasDigits ? hash : null;
+    }
+
+    private static int[] add(int[] owners, int id) {
+        if (Objects.isNull(owners)) {
+            return new int[]{id};
+        }
+        int position = Arrays.binarySearch(owners, id);
+        if (position >= 0) {
+            return owners;
+        }
+        int insertion = -position - 1;
+        int[] updated = new int[owners.length + 1];
+        System.arraycopy(owners, 0, updated, 0, insertion);
+        updated[insertion] = id;
+        System.arraycopy(owners, insertion, updated, insertion + 1, owners.length - insertion);
+        return updated;
+    }
+
+    private static int[] remove(int[] owners, int id) {
+        int position = Arrays.binarySearch(owners, id);
+        if (position < 0) {
+            return owners;
+        }
+        if (owners.length == 1) {
+            return null;
+        }
+        int[] updated = new int[owners.length - 1];
+        System.arraycopy(owners, 0, updated, 0, position);
+        System.arraycopy(owners, position + 1, updated, position, owners.length - position - 1);
+        return updated;
+    }
+}
@@ -0,0 +1,21 @@
+package com.Maksym.Savienkov.userstestassignmentapp.repository.query;
+
+import lombok.Value;
+
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * One way to find the candidate ids of a query: an index lookup or a full scan, with the number of ids it is
+ * expected to produce. The planner picks the path with the fewest; every candidate is then checked against the
+ * whole query, so a path only has to return a superset of the matches.
+ */
+@Value
+public class AccessPath {
+    String index;
+    long estimatedRows;
+    /**
+     * Candidate ids in ascending order.
+     */
+    Supplier<IntStream> ids;
+}
@@ -0,0 +1,182 @@
+package com.Maksym.Savienkov.userstestassignmentapp.repository.storage;
+
+import com.Maksym.Savienkov.userstestassignmentapp.model.User;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.IntStream;
+
+/**
+ * Column-oriented {@link UserStore}. The user id is the row number, so it is not stored at all; the birthdate is a
+ * primitive epoch day and every string column holds a {@code long} reference into a shared {@link StringHeap}.
+ * A stored user takes 45 bytes of columns plus its UTF-8 strings, instead of a {@link User} object with seven
+ * references, a boxed id and a {@link LocalDate}. This is only the store: the secondary indexes of
+ * {@code IndexedUserRepository} are on the heap as well and cost several times more per user; the README lists the
+ * measured footprint of each part.
+ * <p>
+ * Rows live in chunks of 64K that are allocated on first use, so growing the table never copies existing rows.
+ * Locking and the write protocol come from {@link RowUserStore}.
+ * <p>
+ * Writes release the strings they replace. Once released strings outweigh live ones, the writer that notices hands
+ * compaction to a background worker, which moves the live strings out of sparse pages one row lock at a time so the
+ * heap can drop them. Writers never compact on their own thread.
+ */
+public class ColumnarUserStore extends RowUserStore {
+    private static final int CHUNK_BITS = 16;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int ROW_MASK = CHUNK_SIZE - 1;
+
+    // One worker is shared by all stores; a pass only holds one row lock at a time.
+    private static final Executor COMPACTOR = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "columnar-store-compaction");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ReentrantLock chunkLock = new ReentrantLock();
+    private final AtomicBoolean compacting = new AtomicBoolean();
+    private final StringHeap strings = new StringHeap();
+    private final Executor compactor;
+    private volatile Chunk[] chunks = new Chunk[0];
+
+    public ColumnarUserStore() {
+        this(COMPACTOR);
+    }
+
+    ColumnarUserStore(Executor compactor) {
+        this.compactor = compactor;
+    }
+
+    @Override
+    public IntStream ids() {
+        Chunk[] current = chunks;
+        return IntStream.range(0, current.length)
+                .filter(index -> Objects.nonNull(current[index]))
+                .flatMap(index -> IntStream.range(0, CHUNK_SIZE)
+                        .filter(row -> current[index].present[row] != 0)
+                        .map(row -> (index << CHUNK_BITS) | row));
+    }
+
+    /**
+     * String heap pages currently allocated, for tests and metrics.
+     */
+    int stringPages() {
+        return strings.pageCount();
+    }
+
+    @Override
+    void readRow(int id, Row row) {
+        Chunk chunk = chunk(id);
+        if (Objects.isNull(chunk)) {
+            row.present = false;
+            return;
+        }
+        int index = id & ROW_MASK;
+        row.present = chunk.present[index] != 0;
+        row.birthdate = chunk.birthdates[index];
+        row.email = chunk.emails[index];
+        row.firstName = chunk.firstNames[index];
+        row.lastName = chunk.lastNames[index];
+        row.address = chunk.addresses[index];
+        row.phoneNumber = chunk.phoneNumbers[index];
+    }
+
+    @Override
+    void writeRow(int id, Row row) {
+        Chunk chunk = ensureChunk(id);
+        int index = id & ROW_MASK;
+        chunk.birthdates[index] = row.birthdate;
+        chunk.emails[index] = row.email;
+        chunk.firstNames[index] = row.firstName;
+        chunk.lastNames[index] = row.lastName;
+        chunk.addresses[index] = row.address;
+        chunk.phoneNumbers[index] = row.phoneNumber;
+        chunk.present[index] = (byte) (row.present ? 1 : 0);
+    }
+
+    @Override
+    long addString(String value) {
+        return strings.add(value);
+    }
+
+    @Override
+    String getString(long reference) {
+        return strings.get(reference);
+    }
+
+    @Override
+    void releaseString(long reference) {
+        strings.release(reference);
+    }
+
+    /**
+     * Schedules a compaction pass once released strings outweigh live ones, unless one is already pending.
+     */
+    @Override
+    void afterWrite() {
+        if (strings.needsCompaction() && compacting.compareAndSet(false, true)) {
+            compactor.execute(this::compact);
+        }
+    }
+
+    /**
+     * Moves the strings of every row out of sparse heap pages. Each byte is moved at most once per doubling of the
+     * garbage, so the work is amortized over the writes that caused it.
+     */
+    private void compact() {
+        try {
+            ids().forEach(id -> moveStrings(id, this::move));
+        } finally {
+            compacting.set(false);
+        }
+    }
+
+    private long move(long reference) {
+        return strings.isSparse(reference) ? strings.copy(reference) : reference;
+    }
+
+    private Chunk chunk(int id) {
+        if (id < 0) {
+            return null;
+        }
+        Chunk[] current = chunks;
+        int index = id >>> CHUNK_BITS;
+        return index < current.length ? current[index] : null;
+    }
+
+    private Chunk ensureChunk(int id) {
+        Chunk chunk = chunk(id);
+        if (Objects.nonNull(chunk)) {
+            return chunk;
+        }
+        chunkLock.lock();
+        try {
+            Chunk[] current = chunks;
+            int index = id >>> CHUNK_BITS;
+            if (index < current.length && Objects.nonNull(current[index])) {
+                return current[index];
+            }
+            Chunk[] grown = index < current.length ? current.clone() : Arrays.copyOf(current, index + 1);
+            grown[index] = new Chunk();
+            chunks = grown;
+            return grown[index];
+        } finally {
+            chunkLock.unlock();
+        }
+    }
+
+    private static final class Chunk {
+        private final byte[] present = new byte[CHUNK_SIZE];
+        private final int[] birthdates = new int[CHUNK_SIZE];
+        private final long[] emails = new long[CHUNK_SIZE];
+        private final long[] firstNames = new long[CHUNK_SIZE];
+        private final long[] lastNames = new long[CHUNK_SIZE];
+        private final long[] addresses = new long[CHUNK_SIZE];
+        private final long[] phoneNumbers = new long[CHUNK_SIZE];
+    }
+}
@@ -0,0 +1,179 @@
+package com.Maksym.Savienkov.userstestassignmentapp.repository.storage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only file of UTF-8 strings, memory-mapped in 16 MiB pages. A string is addressed by the {@code long}
+ * file offset of its entry: a 4-byte length, a CRC32 of the length and the bytes, then the bytes. The first 8 bytes
+ * of the file hold the end of the appended data, so reopening the file needs no scan.
+ * <p>
+ * An entry is complete before the end is moved past it. The OS may still write mapped pages back in any order, so
+ * after a crash the stored end can lag behind entries that were written, and entries can be torn; the owner checks
+ * the strings it references with {@link #isIntact(long)} and moves the end past them with {@link #extendTo(long)}.
+ */
+class MappedStringRegion implements AutoCloseable {
+    static final long NULL = -1;
+
+    private static final int PAGE_SIZE = 16 << 20;
+    private static final int HEADER_SIZE = Long.BYTES;
+    private static final int ENTRY_HEADER = Integer.BYTES + Integer.BYTES;
+
+    private final FileChannel channel;
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private volatile MappedByteBuffer[] pages;
+    private long end;
+
+    MappedStringRegion(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        int pageCount = (int) Math.max(1, (channel.size() + PAGE_SIZE - 1) / PAGE_SIZE);
+        pages = new MappedByteBuffer[pageCount];
+        for (int i = 0; i < pageCount; i++) {
+            pages[i] = map(i);
+        }
+        end = Math.max(HEADER_SIZE, pages[0].getLong(0));
+    }
+
+    long add(String value) {
+        if (Objects.isNull(value)) {
+            return NULL;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int size = ENTRY_HEADER + bytes.length;
+        if (size > PAGE_SIZE) {
+            throw new IllegalArgumentException("String of " + bytes.length + " bytes does not fit into a storage page.");
+        }
+
+        appendLock.lock();
+        try {
+            long offset = end;
+            // Strings never straddle two pages.
+            if (offset % PAGE_SIZE + size > PAGE_SIZE) {
+                offset = (offset / PAGE_SIZE + 1) * PAGE_SIZE;
+            }
+            MappedByteBuffer page = page((int) (offset / PAGE_SIZE));
+            int position = (int) (offset % PAGE_SIZE);
+            page.putInt(position, bytes.length);
+            page.put(position + ENTRY_HEADER, bytes);
+            page.putInt(position + Integer.BYTES, checksum(page, position, bytes.length));
+            end = offset + size;
+            pages[0].putLong(0, end);
+            return offset;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    String get(long reference) {
+        if (reference == NULL) {
+            return null;
+        }
+        MappedByteBuffer page = pages[(int) (reference / PAGE_SIZE)];
+        int position = (int) (reference % PAGE_SIZE);
+        int length = page.getInt(position);
+        if (length < 0 || length > PAGE_SIZE - ENTRY_HEADER - position) {
+            // Seen by optimistic readers racing a writer; they retry under the row lock.
+            throw new IllegalStateException("String entry at " + reference + " is not complete.");
+        }
+        byte[] bytes = new byte[length];
+        page.get(position + ENTRY_HEADER, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Whether {@code reference} points at a complete entry whose checksum matches.
+     */
+    boolean isIntact(long reference) {
+        if (reference == NULL) {
+            return true;
+        }
+        MappedByteBuffer[] current = pages;
+        long index = reference / PAGE_SIZE;
+        int position = (int) (reference % PAGE_SIZE);
+        if (reference < HEADER_SIZE || index >= current.length || position + ENTRY_HEADER > PAGE_SIZE) {
+            return false;
+        }
+        MappedByteBuffer page = current[(int) index];
+        int length = page.getInt(position);
+        return length >= 0 && length <= PAGE_SIZE - ENTRY_HEADER - position
+                && page.getInt(position + Integer.BYTES) == checksum(page, position, length);
+    }
+
+    /**
+     * Offset right after the intact entry at {@code reference}, or 0 for {@link #NULL}.
+     */
+    long endOf(long reference) {
+        if (reference == NULL) {
+            return 0;
+        }
+        return reference + ENTRY_HEADER + pages[(int) (reference / PAGE_SIZE)].getInt((int) (reference % PAGE_SIZE));
+    }
+
+    /**
+     * Makes sure nothing before {@code offset} is overwritten by later appends.
+     */
+    void extendTo(long offset) {
+        appendLock.lock();
+        try {
+            if (offset > end) {
+                end = offset;
+                pages[0].putLong(0, end);
+            }
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Flushes the data pages, then the first page with the header.
+     */
+    void force() {
+        MappedByteBuffer[] current = pages;
+        for (int i = current.length - 1; i >= 0; i--) {
+            current[i].force();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    private MappedByteBuffer page(int index) {
+        MappedByteBuffer[] current = pages;
+        if (index < current.length) {
+            return current[index];
+        }
+        MappedByteBuffer[] grown = Arrays.copyOf(current, index + 1);
+        for (int i = current.length; i <= index; i++) {
+            grown[i] = map(i);
+        }
+        pages = grown;
+        return grown[index];
+    }
+
+    private MappedByteBuffer map(int index) {
+        try {
+            return channel.map(FileChannel.MapMode.READ_WRITE, (long) index * PAGE_SIZE, PAGE_SIZE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to map string page " + index + ".", e);
+        }
+    }
+
+    private static int checksum(MappedByteBuffer page, int position, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(page.slice(position, Integer.BYTES));
+        crc.update(page.slice(position + ENTRY_HEADER, length));
+        return (int) crc.getValue();
+    }
+}
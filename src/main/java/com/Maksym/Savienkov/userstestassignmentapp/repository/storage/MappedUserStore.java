@@ -0,0 +1,299 @@
+package com.Maksym.Savienkov.userstestassignmentapp.repository.storage;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.IntStream;
+import java.util.zip.CRC32;
+
+/**
+ * Persistent {@link UserStore} backed by memory-mapped files in one directory:
+ * <ul>
+ *     <li>{@code users.records} holds one 112-byte record per user id at offset {@code id * 112}. A record has two
+ *     56-byte slots, each with a sequence number, a CRC32, a presence flag, the birthdate as an epoch day and five
+ *     {@code long} references to strings;</li>
+ *     <li>{@code users.strings} is a {@link MappedStringRegion} the references point into;</li>
+ *     <li>{@code users.state} tells whether the store was closed cleanly and how many users it held then.</li>
+ * </ul>
+ * Records are read and written in place in the mapped pages, so the data never lives on the Java heap. A write
+ * fills the slot that does not hold the current version and gives it the next sequence number, so a record torn by
+ * a crash fails its checksum and the previous version is read instead.
+ * <p>
+ * {@link #force()} flushes the strings before the records. Between forces the OS may write pages back in any order,
+ * so opening a store that was not closed cleanly checks the strings of every record and falls back to the previous
+ * version, or drops the record, where they did not make it to disk. Reopening a cleanly closed store only maps the
+ * files again. Strings are append-only: writes keep the strings of unchanged columns, but replaced ones stay in the
+ * file.
+ */
+@Slf4j
+public class MappedUserStore extends RowUserStore {
+    private static final int SEQUENCE = 0;
+    private static final int CHECKSUM = 4;
+    private static final int PRESENT = 8;
+    private static final int BIRTHDATE = 12;
+    private static final int EMAIL = 16;
+    private static final int FIRST_NAME = 24;
+    private static final int LAST_NAME = 32;
+    private static final int ADDRESS = 40;
+    private static final int PHONE_NUMBER = 48;
+    private static final int SLOT_SIZE = 56;
+    private static final int RECORD_SIZE = 2 * SLOT_SIZE;
+
+    private static final int SEGMENT_BITS = 16;
+    private static final int SEGMENT_RECORDS = 1 << SEGMENT_BITS;
+    private static final int RECORD_MASK = SEGMENT_RECORDS - 1;
+    private static final long SEGMENT_SIZE = (long) SEGMENT_RECORDS * RECORD_SIZE;
+
+    private static final int STATE_SIZE = Integer.BYTES + Integer.BYTES;
+    private static final int CLEAN = 1;
+    private static final int OPEN = 0;
+
+    private final FileChannel records;
+    private final FileChannel state;
+    private final MappedStringRegion strings;
+    private final ReentrantLock segmentLock = new ReentrantLock();
+    private volatile MappedByteBuffer[] segments;
+
+    public MappedUserStore(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        records = FileChannel.open(
+                directory.resolve("users.records"),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE
+        );
+        state = FileChannel.open(
+                directory.resolve("users.state"),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE
+        );
+        strings = new MappedStringRegion(directory.resolve("users.strings"));
+        int segmentCount = (int) ((records.size() + SEGMENT_SIZE - 1) / SEGMENT_SIZE);
+        segments = new MappedByteBuffer[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = map(i);
+        }
+
+        ByteBuffer saved = ByteBuffer.allocate(STATE_SIZE);
+        if (state.read(saved, 0) == STATE_SIZE && saved.getInt(0) == CLEAN) {
+            restoreSize(saved.getInt(Integer.BYTES));
+        } else {
+            restoreSize(recover());
+        }
+        // Until close() marks it clean again, a crash makes the next open run the recovery.
+        writeState(OPEN, 0);
+    }
+
+    @Override
+    public IntStream ids() {
+        MappedByteBuffer[] current = segments;
+        return IntStream.range(0, current.length)
+                .flatMap(index -> IntStream.range(0, SEGMENT_RECORDS)
+                        .filter(record -> isPresent(current[index], record * RECORD_SIZE))
+                        .map(record -> (index << SEGMENT_BITS) | record));
+    }
+
+    /**
+     * Flushes all mapped pages to disk, the strings before the records referencing them.
+     */
+    public void force() {
+        strings.force();
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        writeState(CLEAN, size());
+        strings.close();
+        records.close();
+        state.close();
+    }
+
+    @Override
+    void readRow(int id, Row row) {
+        MappedByteBuffer segment = segment(id);
+        int slot = Objects.isNull(segment) ? -1 : currentSlot(segment, (id & RECORD_MASK) * RECORD_SIZE);
+        if (slot < 0) {
+            row.present = false;
+            return;
+        }
+        row.present = segment.getInt(slot + PRESENT) != 0;
+        row.birthdate = segment.getInt(slot + BIRTHDATE);
+        row.email = segment.getLong(slot + EMAIL);
+        row.firstName = segment.getLong(slot + FIRST_NAME);
+        row.lastName = segment.getLong(slot + LAST_NAME);
+        row.address = segment.getLong(slot + ADDRESS);
+        row.phoneNumber = segment.getLong(slot + PHONE_NUMBER);
+    }
+
+    @Override
+    void writeRow(int id, Row row) {
+        MappedByteBuffer segment = ensureSegment(id);
+        int offset = (id & RECORD_MASK) * RECORD_SIZE;
+        int current = currentSlot(segment, offset);
+        int slot = current == offset ? offset + SLOT_SIZE : offset;
+        int sequence = current < 0 ? 1 : segment.getInt(current + SEQUENCE) + 1;
+        segment.putInt(slot + PRESENT, row.present ? 1 : 0);
+        segment.putInt(slot + BIRTHDATE, row.birthdate);
+        segment.putLong(slot + EMAIL, row.email);
+        segment.putLong(slot + FIRST_NAME, row.firstName);
+        segment.putLong(slot + LAST_NAME, row.lastName);
+        segment.putLong(slot + ADDRESS, row.address);
+        segment.putLong(slot + PHONE_NUMBER, row.phoneNumber);
+        // Zero marks a slot that was never written, so the sequence skips it when it wraps around.
+        segment.putInt(slot + SEQUENCE, sequence == 0 ? 1 : sequence);
+        segment.putInt(slot + CHECKSUM, checksum(segment, slot));
+    }
+
+    @Override
+    long addString(String value) {
+        return strings.add(value);
+    }
+
+    @Override
+    String getString(long reference) {
+        return strings.get(reference);
+    }
+
+    @Override
+    void releaseString(long reference) {
+    }
+
+    /**
+     * Checks every record after an unclean shutdown: versions whose strings are not intact are invalidated, and
+     * the string region is extended past every string a surviving version references. Returns the number of
+     * present users.
+     */
+    private int recover() {
+        int present = 0;
+        int repaired = 0;
+        long stringsEnd = 0;
+        MappedByteBuffer[] current = segments;
+        for (MappedByteBuffer segment : current) {
+            for (int record = 0; record < SEGMENT_RECORDS; record++) {
+                int offset = record * RECORD_SIZE;
+                int slot = currentSlot(segment, offset);
+                while (slot >= 0 && !hasIntactStrings(segment, slot)) {
+                    segment.putInt(slot + SEQUENCE, 0);
+                    repaired++;
+                    slot = currentSlot(segment, offset);
+                }
+                if (slot < 0) {
+                    continue;
+                }
+                for (int field = EMAIL; field <= PHONE_NUMBER; field += Long.BYTES) {
+                    stringsEnd = Math.max(stringsEnd, strings.endOf(segment.getLong(slot + field)));
+                }
+                if (segment.getInt(slot + PRESENT) != 0) {
+                    present++;
+                }
+            }
+        }
+        strings.extendTo(stringsEnd);
+        force();
+        if (repaired > 0) {
+            log.warn("Invalidated {} user record versions with incomplete strings after an unclean shutdown.", repaired);
+        }
+        return present;
+    }
+
+    private boolean hasIntactStrings(MappedByteBuffer segment, int slot) {
+        for (int field = EMAIL; field <= PHONE_NUMBER; field += Long.BYTES) {
+            if (!strings.isIntact(segment.getLong(slot + field))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void writeState(int flag, int count) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(STATE_SIZE).putInt(flag).putInt(count).flip();
+        while (buffer.hasRemaining()) {
+            state.write(buffer, buffer.position());
+        }
+        state.force(false);
+    }
+
+    private static boolean isPresent(MappedByteBuffer segment, int offset) {
+        int slot = currentSlot(segment, offset);
+        return slot >= 0 && segment.getInt(slot + PRESENT) != 0;
+    }
+
+    /**
+     * Offset of the slot holding the current version of the record at {@code offset}: the intact slot with the
+     * newer sequence number, or -1 if neither slot was written intact.
+     */
+    private static int currentSlot(MappedByteBuffer segment, int offset) {
+        int first = segment.getInt(offset + SEQUENCE);
+        int second = segment.getInt(offset + SLOT_SIZE + SEQUENCE);
+        boolean secondNewer = first == 0 || (second != 0 && second - first > 0);
+        int newer = secondNewer ? offset + SLOT_SIZE : offset;
+        int older = secondNewer ? offset : offset + SLOT_SIZE;
+        if (isIntact(segment, newer)) {
+            return newer;
+        }
+        return isIntact(segment, older) ? older : -1;
+    }
+
+    private static boolean isIntact(MappedByteBuffer segment, int slot) {
+        return segment.getInt(slot + SEQUENCE) != 0 && segment.getInt(slot + CHECKSUM) == checksum(segment, slot);
+    }
+
+    private static int checksum(MappedByteBuffer segment, int slot) {
+        CRC32 crc = new CRC32();
+        crc.update(segment.slice(slot + SEQUENCE, Integer.BYTES));
+        crc.update(segment.slice(slot + PRESENT, SLOT_SIZE - PRESENT));
+        return (int) crc.getValue();
+    }
+
+    private MappedByteBuffer segment(int id) {
+        if (id < 0) {
+            return null;
+        }
+        MappedByteBuffer[] current = segments;
+        int index = id >>> SEGMENT_BITS;
+        return index < current.length ? current[index] : null;
+    }
+
+    private MappedByteBuffer ensureSegment(int id) {
+        MappedByteBuffer segment = segment(id);
+        if (Objects.nonNull(segment)) {
+            return segment;
+        }
+        segmentLock.lock();
+        try {
+            MappedByteBuffer[] current = segments;
+            int index = id >>> SEGMENT_BITS;
+            if (index < current.length) {
+                return current[index];
+            }
+            // Segments up to the requested one are mapped; the file stays sparse where no records are written.
+            MappedByteBuffer[] grown = Arrays.copyOf(current, index + 1);
+            for (int i = current.length; i <= index; i++) {
+                grown[i] = map(i);
+            }
+            segments = grown;
+            return grown[index];
+        } finally {
+            segmentLock.unlock();
+        }
+    }
+
+    private MappedByteBuffer map(int index) {
+        try {
+            return records.map(FileChannel.MapMode.READ_WRITE, index * SEGMENT_SIZE, SEGMENT_SIZE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to map record segment " + index + ".", e);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.Maksym.Savienkov.userstestassignmentapp.repository.storage;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Striped {@link StampedLock}s guarding the rows of a {@link UserStore}. Neighbouring ids map to different
+ * stripes, so sequential inserts do not contend with each other.
+ */
+class RowLocks {
+    private static final int STRIPES = 64;
+
+    private final StampedLock[] stripes = new StampedLock[STRIPES];
+
+    RowLocks() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new StampedLock();
+        }
+    }
+
+    StampedLock forId(int id) {
+        return stripes[id & (STRIPES - 1)];
+    }
+}
@@ -0,0 +1,270 @@
+package com.Maksym.Savienkov.userstestassignmentapp.repository.storage;
+
+import com.Maksym.Savienkov.userstestassignmentapp.model.User;
+
+import java.time.LocalDate;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * Base of the stores that keep one fixed-size {@link Row} per user id: a presence flag, the birthdate as an epoch
+ * day and a {@code long} reference per string column. Subclasses decide where rows and strings live; the locking
+ * and the put and remove protocol are implemented once here.
+ * <p>
+ * Each row is guarded by a striped {@link StampedLock}. Writers take the write lock of their stripe, keep the
+ * string reference of every unchanged column and undo the write if the change callback throws. Readers copy the
+ * row and decode its strings optimistically and only fall back to a read lock if a write overlapped, so a subclass
+ * must tolerate reads of a row that is being written and may throw {@link RuntimeException}s from them.
+ */
+abstract class RowUserStore implements UserStore {
+    static final int NULL_BIRTHDATE = Integer.MIN_VALUE;
+
+    private final RowLocks locks = new RowLocks();
+    private final AtomicInteger size = new AtomicInteger();
+
+    /**
+     * Copies the row of {@code id} into {@code row}, or marks it absent if no storage was allocated for the id.
+     */
+    abstract void readRow(int id, Row row);
+
+    /**
+     * Writes {@code row} as the row of {@code id}, allocating storage for the id if needed.
+     */
+    abstract void writeRow(int id, Row row);
+
+    abstract long addString(String value);
+
+    abstract String getString(long reference);
+
+    /**
+     * Called once no row references the string anymore.
+     */
+    abstract void releaseString(long reference);
+
+    /**
+     * Called after every put and remove, once the row lock is released.
+     */
+    void afterWrite() {
+    }
+
+    @Override
+    public User get(int id) {
+        if (id < 0) {
+            return null;
+        }
+        StampedLock lock = locks.forId(id);
+        Row row = new Row();
+        long stamp = lock.tryOptimisticRead();
+        User user = null;
+        try {
+            user = read(id, row);
+        } catch (RuntimeException e) {
+            // A concurrent write left the row or its strings inconsistent; the stamp cannot validate.
+            stamp = 0;
+        }
+        if (lock.validate(stamp)) {
+            return user;
+        }
+        stamp = lock.readLock();
+        try {
+            return read(id, row);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public void put(User user, BiConsumer<User, User> onChange) {
+        int id = user.getId();
+        if (id < 0) {
+            throw new IllegalArgumentException("User id cannot be negative.");
+        }
+        StampedLock lock = locks.forId(id);
+        long stamp = lock.writeLock();
+        try {
+            Row old = new Row();
+            readRow(id, old);
+            User previous = old.present ? toUser(id, old) : null;
+            Row updated = new Row();
+            updated.present = true;
+            updated.birthdate = Objects.isNull(user.getBirthdate())
+                    ? NULL_BIRTHDATE
+                    : Math.toIntExact(user.getBirthdate().toEpochDay());
+            // Strings are only added for columns that changed, so re-saving a user does not grow the storage.
+            updated.email = reference(old.email, previous, User::getEmail, user);
+            updated.firstName = reference(old.firstName, previous, User::getFirstName, user);
+            updated.lastName = reference(old.lastName, previous, User::getLastName, user);
+            updated.address = reference(old.address, previous, User::getAddress, user);
+            updated.phoneNumber = reference(old.phoneNumber, previous, User::getPhoneNumber, user);
+            writeRow(id, updated);
+            if (Objects.isNull(previous)) {
+                size.incrementAndGet();
+            }
+            try {
+                onChange.accept(previous, user);
+            } catch (RuntimeException e) {
+                writeRow(id, old);
+                if (Objects.isNull(previous)) {
+                    size.decrementAndGet();
+                }
+                releaseUnshared(updated, old);
+                throw e;
+            }
+            releaseUnshared(old, updated);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        afterWrite();
+    }
+
+    @Override
+    public void remove(int id, BiConsumer<User, User> onChange) {
+        if (id < 0) {
+            return;
+        }
+        StampedLock lock = locks.forId(id);
+        long stamp = lock.writeLock();
+        try {
+            Row old = new Row();
+            readRow(id, old);
+            if (!old.present) {
+                return;
+            }
+            User previous = toUser(id, old);
+            Row removed = old.copy();
+            removed.present = false;
+            writeRow(id, removed);
+            size.decrementAndGet();
+            try {
+                onChange.accept(previous, null);
+            } catch (RuntimeException e) {
+                writeRow(id, old);
+                size.incrementAndGet();
+                throw e;
+            }
+            releaseUnshared(old, removed);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        afterWrite();
+    }
+
+    @Override
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * Sets the number of present rows of storage that was reopened.
+     */
+    void restoreSize(int count) {
+        size.set(count);
+    }
+
+    /**
+     * Replaces every string reference of the row of {@code id} with {@code move} applied to it, under the row's
+     * write lock. Absent rows are left alone, and a row is only written if a reference changed.
+     */
+    void moveStrings(int id, LongUnaryOperator move) {
+        StampedLock lock = locks.forId(id);
+        long stamp = lock.writeLock();
+        try {
+            Row row = new Row();
+            readRow(id, row);
+            if (!row.present) {
+                return;
+            }
+            Row moved = row.copy();
+            moved.email = move.applyAsLong(row.email);
+            moved.firstName = move.applyAsLong(row.firstName);
+            moved.lastName = move.applyAsLong(row.lastName);
+            moved.address = move.applyAsLong(row.address);
+            moved.phoneNumber = move.applyAsLong(row.phoneNumber);
+            if (moved.email != row.email || moved.firstName != row.firstName || moved.lastName != row.lastName
+                    || moved.address != row.address || moved.phoneNumber != row.phoneNumber) {
+                writeRow(id, moved);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private User read(int id, Row row) {
+        readRow(id, row);
+        return row.present ? toUser(id, row) : null;
+    }
+
+    private User toUser(int id, Row row) {
+        return User.builder()
+                .id(id)
+                .email(getString(row.email))
+                .firstName(getString(row.firstName))
+                .lastName(getString(row.lastName))
+                .birthdate(row.birthdate == NULL_BIRTHDATE ? null : LocalDate.ofEpochDay(row.birthdate))
+                .address(getString(row.address))
+                .phoneNumber(getString(row.phoneNumber))
+                .build();
+    }
+
+    /**
+     * Reference for the {@code column} of {@code current}: the existing {@code reference} if the value did not
+     * change, otherwise a newly added string.
+     */
+    private long reference(long reference, User previous, Function<User, String> column, User current) {
+        String value = column.apply(current);
+        if (Objects.nonNull(previous) && Objects.equals(column.apply(previous), value)) {
+            return reference;
+        }
+        return addString(value);
+    }
+
+    /**
+     * Releases the strings of a present {@code row} that a present {@code kept} row does not reference. The
+     * references of an absent row are stale and never released again.
+     */
+    private void releaseUnshared(Row row, Row kept) {
+        if (!row.present) {
+            return;
+        }
+        releaseUnshared(row.email, kept.present, kept.email);
+        releaseUnshared(row.firstName, kept.present, kept.firstName);
+        releaseUnshared(row.lastName, kept.present, kept.lastName);
+        releaseUnshared(row.address, kept.present, kept.address);
+        releaseUnshared(row.phoneNumber, kept.present, kept.phoneNumber);
+    }
+
+    private void releaseUnshared(long reference, boolean kept, long keptReference) {
+        if (!kept || reference != keptReference) {
+            releaseString(reference);
+        }
+    }
+
+    /**
+     * The fixed-size fields of one row, copied out so they can be read optimistically and decoded afterwards.
+     */
+    static final class Row {
+        boolean present;
+        int birthdate;
+        long email;
+        long firstName;
+        long lastName;
+        long address;
+        long phoneNumber;
+
+        private Row copy() {
+            Row copy = new Row();
+            copy.present = present;
+            copy.birthdate = birthdate;
+            copy.email = email;
+            copy.firstName = firstName;
+            copy.lastName = lastName;
+            copy.address = address;
+            copy.phoneNumber = phoneNumber;
+            return copy;
+        }
+    }
+}
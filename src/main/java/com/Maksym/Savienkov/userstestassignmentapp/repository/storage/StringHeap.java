@@ -0,0 +1,261 @@
+package com.Maksym.Savienkov.userstestassignmentapp.repository.storage;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Store of UTF-8 encoded strings in 1 MiB pages.
+ * <p>
+ * A string is addressed by a {@code long} reference packing its page (high bits) and offset (low 20 bits),
+ * and is stored as a varint length followed by its bytes, so a typical short ASCII string costs one byte more
+ * than its length instead of a {@link String} header plus a separate array. Writers reserve space with a CAS on
+ * the current page and only take a lock to open a new page.
+ * <p>
+ * Owners {@link #release(long)} strings they no longer reference. A page whose strings have all been released is
+ * dropped and its slot reused, and {@link #needsCompaction()} reports when released bytes outweigh live ones, so
+ * the owner can move the live strings of {@link #isSparse(long) sparse} pages with {@link #copy(long)}.
+ * <p>
+ * The bytes behind a reference are only guaranteed to be visible to a reader that obtained the reference through
+ * a happens-before edge with the writer, such as the row lock of {@link ColumnarUserStore}. A reference read
+ * without one may point into a page that was dropped or reused since, so such readers must validate what they
+ * decoded and expect {@link RuntimeException}s.
+ */
+class StringHeap {
+    static final long NULL = -1;
+
+    private static final int PAGE_BITS = 20;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int OFFSET_MASK = PAGE_SIZE - 1;
+    // Set in the reserved size of a page once it is full, so no reservation can succeed after it was sealed.
+    private static final int SEALED = 1 << 30;
+    private static final int MIN_COMPACTION_PAGES = 16;
+
+    private volatile Page[] pages = {new Page(0)};
+    private volatile Page current = pages[0];
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private final ReentrantLock pageLock = new ReentrantLock();
+    private final AtomicLong reservedBytes = new AtomicLong();
+    private final AtomicLong releasedBytes = new AtomicLong();
+
+    long add(String value) {
+        if (Objects.isNull(value)) {
+            return NULL;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int size = varintSize(bytes.length) + bytes.length;
+        if (size > PAGE_SIZE) {
+            throw new IllegalArgumentException("String of " + bytes.length + " bytes does not fit into a storage page.");
+        }
+        while (true) {
+            Page page = current;
+            int offset = page.reserve(size);
+            if (offset >= 0) {
+                reservedBytes.addAndGet(size);
+                int position = writeVarint(page.bytes, offset, bytes.length);
+                System.arraycopy(bytes, 0, page.bytes, position, bytes.length);
+                return ((long) page.index << PAGE_BITS) | offset;
+            }
+            openPageAfter(page);
+        }
+    }
+
+    String get(long reference) {
+        if (reference == NULL) {
+            return null;
+        }
+        byte[] bytes = pages[(int) (reference >>> PAGE_BITS)].bytes;
+        int position = (int) (reference & OFFSET_MASK);
+        int length = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = bytes[position++];
+            length |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                break;
+            }
+        }
+        return new String(bytes, position, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Copies the string behind {@code reference} to the current page and releases the original.
+     */
+    long copy(long reference) {
+        long copied = add(get(reference));
+        release(reference);
+        return copied;
+    }
+
+    /**
+     * Marks the string behind {@code reference} as no longer used. Every string must be released at most once.
+     */
+    void release(long reference) {
+        if (reference == NULL) {
+            return;
+        }
+        Page page = pages[(int) (reference >>> PAGE_BITS)];
+        byte[] bytes = page.bytes;
+        int position = (int) (reference & OFFSET_MASK);
+        int length = 0;
+        int size = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = bytes[position + size++];
+            length |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                break;
+            }
+        }
+        size += length;
+        releasedBytes.addAndGet(size);
+        if (page.release(size)) {
+            drop(page);
+        }
+    }
+
+    /**
+     * Whether more bytes are held by released strings than by live ones, in a heap large enough for compaction to
+     * be worth a pass over the owner's references.
+     */
+    boolean needsCompaction() {
+        long released = releasedBytes.get();
+        long live = reservedBytes.get() - released;
+        return released > live && released > (long) MIN_COMPACTION_PAGES * PAGE_SIZE;
+    }
+
+    /**
+     * Whether {@code reference} points into a full page where released strings take more space than live ones.
+     * Copying the live strings of sparse pages away frees at least half of their space.
+     */
+    boolean isSparse(long reference) {
+        if (reference == NULL) {
+            return false;
+        }
+        return pages[(int) (reference >>> PAGE_BITS)].isSparse();
+    }
+
+    /**
+     * Bytes held by live strings.
+     */
+    long liveBytes() {
+        return reservedBytes.get() - releasedBytes.get();
+    }
+
+    /**
+     * Pages currently allocated.
+     */
+    int pageCount() {
+        return (int) Arrays.stream(pages).filter(Objects::nonNull).count();
+    }
+
+    private void openPageAfter(Page full) {
+        pageLock.lock();
+        try {
+            if (current != full) {
+                return;
+            }
+            if (full.seal()) {
+                drop(full);
+            }
+            Page[] slots = pages;
+            Integer free = freeSlots.poll();
+            int index = Objects.isNull(free) ? slots.length : free;
+            Page page = new Page(index);
+            Page[] grown = Arrays.copyOf(slots, Math.max(slots.length, index + 1));
+            grown[index] = page;
+            pages = grown;
+            current = page;
+        } finally {
+            pageLock.unlock();
+        }
+    }
+
+    private void drop(Page page) {
+        pageLock.lock();
+        try {
+            Page[] slots = pages.clone();
+            slots[page.index] = null;
+            pages = slots;
+            freeSlots.push(page.index);
+            reservedBytes.addAndGet(-page.reservedSize());
+            releasedBytes.addAndGet(-page.reservedSize());
+        } finally {
+            pageLock.unlock();
+        }
+    }
+
+    private static int varintSize(int value) {
+        int size = 1;
+        while ((value >>>= 7) != 0) {
+            size++;
+        }
+        return size;
+    }
+
+    private static int writeVarint(byte[] bytes, int position, int value) {
+        while ((value & ~0x7F) != 0) {
+            bytes[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        bytes[position++] = (byte) value;
+        return position;
+    }
+
+    private static final class Page {
+        private final int index;
+        private final byte[] bytes = new byte[PAGE_SIZE];
+        private final AtomicInteger reserved = new AtomicInteger();
+        private final AtomicInteger released = new AtomicInteger();
+        private final AtomicBoolean emptied = new AtomicBoolean();
+
+        private Page(int index) {
+            this.index = index;
+        }
+
+        /**
+         * Offset of {@code size} newly reserved bytes, or -1 if the page is sealed or has no room left.
+         */
+        private int reserve(int size) {
+            while (true) {
+                int offset = reserved.get();
+                if ((offset & SEALED) != 0 || offset + size > PAGE_SIZE) {
+                    return -1;
+                }
+                if (reserved.compareAndSet(offset, offset + size)) {
+                    return offset;
+                }
+            }
+        }
+
+        /**
+         * Stops further reservations. Returns whether the page is empty and this call is the first to notice.
+         */
+        private boolean seal() {
+            int size = reserved.getAndUpdate(value -> value | SEALED) & ~SEALED;
+            return released.get() == size && emptied.compareAndSet(false, true);
+        }
+
+        /**
+         * Returns whether this release emptied a sealed page and is the first to notice.
+         */
+        private boolean release(int size) {
+            int total = released.addAndGet(size);
+            int state = reserved.get();
+            return (state & SEALED) != 0 && total == (state & ~SEALED) && emptied.compareAndSet(false, true);
+        }
+
+        private int reservedSize() {
+            return reserved.get() & ~SEALED;
+        }
+
+        private boolean isSparse() {
+            int state = reserved.get();
+            return (state & SEALED) != 0 && released.get() * 2 > (state & ~SEALED);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.Maksym.Savienkov.userstestassignmentapp.repository.storage;
+
+import com.Maksym.Savienkov.userstestassignmentapp.model.User;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Storage engine behind the user repository: keeps one record per user id and materializes {@link User}
+ * objects only when they are read.
+ * <p>
+ * Mutations of one id are atomic. The {@code onChange} callback receives the previous and the new user
+ * (either may be {@code null}) while the id is still locked, so secondary indexes maintained there can never
+ * observe two writers of the same user out of order. If the callback throws, the mutation is undone before the
+ * exception propagates, so a write that a durability layer failed to log is never visible to readers.
+ */
+public interface UserStore extends AutoCloseable {
+    User get(int id);
+
+    void put(User user, BiConsumer<User, User> onChange);
+
+    /**
+     * Puts every user in order. Each put is atomic on its own; the batch as a whole is not.
+     */
+    default void putAll(List<User> users, BiConsumer<User, User> onChange) {
+        for (User user : users) {
+            put(user, onChange);
+        }
+    }
+
+    void remove(int id, BiConsumer<User, User> onChange);
+
+    /**
+     * Ids of all stored users in ascending order.
+     */
+    IntStream ids();
+
+    int size();
+
+    @Override
+    default void close() throws IOException {
+    }
+}
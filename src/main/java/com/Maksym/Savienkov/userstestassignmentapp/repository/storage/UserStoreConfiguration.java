@@ -0,0 +1,72 @@
+package com.Maksym.Savienkov.userstestassignmentapp.repository.storage;
+
+import com.Maksym.Savienkov.userstestassignmentapp.repository.wal.Durability;
+import com.Maksym.Savienkov.userstestassignmentapp.repository.wal.RecoveryStats;
+import com.Maksym.Savienkov.userstestassignmentapp.repository.wal.SnapshotFile;
+import com.Maksym.Savienkov.userstestassignmentapp.repository.wal.WalUserStore;
+import com.Maksym.Savienkov.userstestassignmentapp.repository.wal.WriteAheadLog;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chooses the storage engine with {@code user.storage.type}: {@code columnar} keeps users on the heap,
+ * {@code mapped} persists them in memory-mapped files under {@code user.storage.path}.
+ * <p>
+ * With {@code user.wal.enabled} every mutation is also written to {@code users.wal} under the same path and
+ * acknowledged according to {@code user.wal.durability}, and a snapshot is written to {@code users.snapshot} every
+ * {@code user.snapshot.interval} so that startup only replays the log written since. How long that took is
+ * published as the {@code user.recovery.*} gauges.
+ */
+@Configuration
+public class UserStoreConfiguration {
+    private static final String WAL_FILE = "users.wal";
+    private static final String SNAPSHOT_FILE = "users.snapshot";
+
+    @Bean
+    public UserStore userStore(@Value("${user.storage.type}") String type,
+                               @Value("${user.storage.path}") Path path,
+                               @Value("${user.wal.enabled}") boolean walEnabled,
+                               @Value("${user.wal.durability}") Durability durability,
+                               @Value("${user.wal.batch-window}") Duration batchWindow,
+                               @Value("${user.snapshot.interval}") Duration snapshotInterval) throws IOException {
+        UserStore store = switch (type) {
+            case "columnar" -> new ColumnarUserStore();
+            case "mapped" -> new MappedUserStore(path);
+            default -> throw new IllegalArgumentException("Unknown user storage type '" + type + "'.");
+        };
+        if (walEnabled) {
+            WriteAheadLog wal = new WriteAheadLog(path.resolve(WAL_FILE), durability, batchWindow);
+            store = new WalUserStore(store, wal, new SnapshotFile(path.resolve(SNAPSHOT_FILE)), snapshotInterval);
+        }
+        return store;
+    }
+
+    @Bean
+    public MeterBinder userStoreRecoveryMetrics(UserStore userStore) {
+        return registry -> {
+            if (!(userStore instanceof WalUserStore walUserStore)) {
+                return;
+            }
+            RecoveryStats stats = walUserStore.getRecoveryStats();
+            TimeGauge.builder("user.recovery.time", stats, TimeUnit.MILLISECONDS, value -> value.getSnapshotLoadTime().toMillis())
+                    .tag("phase", "snapshot")
+                    .register(registry);
+            TimeGauge.builder("user.recovery.time", stats, TimeUnit.MILLISECONDS, value -> value.getReplayTime().toMillis())
+                    .tag("phase", "replay")
+                    .register(registry);
+            Gauge.builder("user.recovery.snapshot.users", stats, RecoveryStats::getSnapshotUsers)
+                    .register(registry);
+            Gauge.builder("user.recovery.replayed.records", stats, RecoveryStats::getReplayedRecords)
+                    .register(registry);
+        };
+    }
+}
@@ -0,0 +1,20 @@
+package com.Maksym.Savienkov.userstestassignmentapp.repository.wal;
+
+/**
+ * When a mutation is acknowledged relative to the fsync of its log record.
+ */
+public enum Durability {
+    /**
+     * The caller waits for its record to be fsynced. Records queued while an fsync is running share the next one.
+     */
+    SYNC,
+    /**
+     * Like {@link #SYNC}, but the flusher lingers for the batch window before writing, so more records share one fsync
+     * at the cost of that much extra latency.
+     */
+    BATCHED,
+    /**
+     * The caller does not wait. Records are fsynced once per batch window, so a crash loses at most that window.
+     */
+    ASYNC
+}
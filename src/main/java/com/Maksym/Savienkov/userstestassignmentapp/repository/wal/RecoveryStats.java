@@ -0,0 +1,22 @@
+package com.Maksym.Savienkov.userstestassignmentapp.repository.wal;
+
+import lombok.Value;
+
+import java.time.Duration;
+
+/**
+ * What the last startup of a {@link WalUserStore} had to do: how many users came from the snapshot and how many
+ * log records were replayed on top of it, and how long each step took.
+ */
+@Value
+public class RecoveryStats {
+    long snapshotLsn;
+    int snapshotUsers;
+    Duration snapshotLoadTime;
+    int replayedRecords;
+    Duration replayTime;
+
+    public Duration getTotalTime() {
+        return snapshotLoadTime.plus(replayTime);
+    }
+}
@@ -0,0 +1,113 @@
+package com.Maksym.Savienkov.userstestassignmentapp.repository.wal;
+
+import com.Maksym.Savienkov.userstestassignmentapp.model.User;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.PrimitiveIterator;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Binary point-in-time image of the user store, tagged with the LSN of the last log record it is guaranteed
+ * to contain.
+ * <p>
+ * Layout: {@code [magic][version][LSN]}, then one {@code [length][payload]} per user in the log record encoding,
+ * then {@code [-1][user count][CRC32 of everything before it]}. A new snapshot is written to a temporary file,
+ * fsynced and renamed over the old one, so the file on disk is always complete.
+ */
+public class SnapshotFile {
+    private static final int MAGIC = 0x55534e50;
+    private static final int VERSION = 1;
+    private static final int END = -1;
+
+    private final Path file;
+
+    public SnapshotFile(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Feeds every user in the snapshot to {@code consumer} and returns the snapshot's LSN,
+     * or {@code 0} if no snapshot has been written yet.
+     */
+    public long load(Consumer<User> consumer) {
+        if (Files.notExists(file)) {
+            return 0;
+        }
+        CRC32 crc = new CRC32();
+        try (DataInputStream in = new DataInputStream(new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(file), 1 << 16), crc))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Unsupported snapshot format.");
+            }
+            long lsn = in.readLong();
+            int count = 0;
+            for (int length = in.readInt(); length != END; length = in.readInt()) {
+                byte[] payload = new byte[length];
+                in.readFully(payload);
+                consumer.accept(WalRecord.decode(lsn, ByteBuffer.wrap(payload)).getUser());
+                count++;
+            }
+            int expectedCount = in.readInt();
+            int actualCrc = (int) crc.getValue();
+            if (expectedCount != count || in.readInt() != actualCrc) {
+                throw new IOException("Snapshot checksum does not match.");
+            }
+            return lsn;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load snapshot " + file + ".", e);
+        }
+    }
+
+    /**
+     * Writes the users behind {@code ids} as the snapshot for {@code lsn} and returns how many were written.
+     * Ids whose user is gone by the time it is read are skipped.
+     */
+    public int write(long lsn, IntStream ids, IntFunction<User> users) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        int count = 0;
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            CheckedOutputStream checked = new CheckedOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16), new CRC32());
+            DataOutputStream out = new DataOutputStream(checked);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(lsn);
+            PrimitiveIterator.OfInt iterator = ids.iterator();
+            while (iterator.hasNext()) {
+                User user = users.apply(iterator.nextInt());
+                if (Objects.nonNull(user)) {
+                    byte[] payload = WalRecord.encodePut(user);
+                    out.writeInt(payload.length);
+                    out.write(payload);
+                    count++;
+                }
+            }
+            out.writeInt(END);
+            out.writeInt(count);
+            out.writeInt((int) checked.getChecksum().getValue());
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return count;
+    }
+}
@@ -0,0 +1,93 @@
+package com.Maksym.Savienkov.userstestassignmentapp.repository.wal;
+
+import com.Maksym.Savienkov.userstestassignmentapp.model.User;
+import lombok.Value;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * One logged mutation: the full new state of a user, or the deletion of an id.
+ */
+@Value
+public class WalRecord {
+    private static final int NULL_BIRTHDATE = Integer.MIN_VALUE;
+    private static final int NULL_STRING = -1;
+
+    long lsn;
+    Type type;
+    int id;
+    User user;
+
+    public enum Type {
+        PUT, DELETE
+    }
+
+    static byte[] encodePut(User user) {
+        byte[][] strings = {
+                bytes(user.getEmail()),
+                bytes(user.getFirstName()),
+                bytes(user.getLastName()),
+                bytes(user.getAddress()),
+                bytes(user.getPhoneNumber())
+        };
+        int size = 1 + 2 * Integer.BYTES;
+        for (byte[] string : strings) {
+            size += Integer.BYTES + (Objects.isNull(string) ? 0 : string.length);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size)
+                .put((byte) Type.PUT.ordinal())
+                .putInt(user.getId())
+                .putInt(Objects.isNull(user.getBirthdate()) ? NULL_BIRTHDATE : (int) user.getBirthdate().toEpochDay());
+        for (byte[] string : strings) {
+            if (Objects.isNull(string)) {
+                buffer.putInt(NULL_STRING);
+            } else {
+                buffer.putInt(string.length).put(string);
+            }
+        }
+        return buffer.array();
+    }
+
+    static byte[] encodeDelete(int id) {
+        return ByteBuffer.allocate(1 + Integer.BYTES)
+                .put((byte) Type.DELETE.ordinal())
+                .putInt(id)
+                .array();
+    }
+
+    static WalRecord decode(long lsn, ByteBuffer payload) {
+        Type type = Type.values()[payload.get()];
+        int id = payload.getInt();
+        if (type == Type.DELETE) {
+            return new WalRecord(lsn, type, id, null);
+        }
+        int birthdate = payload.getInt();
+        User user = User.builder()
+                .id(id)
+                .birthdate(birthdate == NULL_BIRTHDATE ? null : LocalDate.ofEpochDay(birthdate))
+                .email(string(payload))
+                .firstName(string(payload))
+                .lastName(string(payload))
+                .address(string(payload))
+                .phoneNumber(string(payload))
+                .build();
+        return new WalRecord(lsn, type, id, user);
+    }
+
+    private static byte[] bytes(String value) {
+        return Objects.isNull(value) ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String string(ByteBuffer payload) {
+        int length = payload.getInt();
+        if (length == NULL_STRING) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        payload.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,192 @@
+package com.Maksym.Savienkov.userstestassignmentapp.repository.wal;
+
+import com.Maksym.Savienkov.userstestassignmentapp.model.User;
+import com.Maksym.Savienkov.userstestassignmentapp.repository.storage.UserStore;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Makes any {@link UserStore} durable by logging every mutation to a {@link WriteAheadLog}. On construction the
+ * wrapped store is filled from the latest {@link SnapshotFile} and the log records after it.
+ * <p>
+ * A record is appended from the change callback, while the row is still locked, so the log order of two writes to
+ * the same user is the order in which they were applied. It is appended before the caller's callback runs, and a
+ * failed append makes the wrapped store undo the write, so a mutation the log rejected is never visible. The caller
+ * then waits for the fsync outside of the lock.
+ * <p>
+ * Snapshots are fuzzy: rows are copied one by one while writers keep going. That is enough because a record gets
+ * its LSN only after it is applied, so everything up to the LSN taken before the copy is already in the store,
+ * and replaying the later records over the copy is idempotent. Once a snapshot is on disk the log is compacted
+ * up to its LSN, which keeps the replay at startup bounded by the snapshot interval.
+ */
+@Slf4j
+public class WalUserStore implements UserStore {
+    private static final BiConsumer<User, User> NO_CHANGE_LISTENER = (previous, current) -> { };
+
+    private final UserStore delegate;
+    private final WriteAheadLog wal;
+    private final SnapshotFile snapshots;
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+    private final ScheduledExecutorService scheduler;
+    private final RecoveryStats recoveryStats;
+
+    /**
+     * @param snapshotInterval how often to take a snapshot in the background; zero disables the schedule
+     */
+    public WalUserStore(UserStore delegate, WriteAheadLog wal, SnapshotFile snapshots, Duration snapshotInterval) {
+        this.delegate = delegate;
+        this.wal = wal;
+        this.snapshots = snapshots;
+        this.recoveryStats = recover();
+        log.info("Recovered {} users from snapshot at LSN {} in {} ms and replayed {} log records in {} ms.",
+                recoveryStats.getSnapshotUsers(), recoveryStats.getSnapshotLsn(),
+                recoveryStats.getSnapshotLoadTime().toMillis(), recoveryStats.getReplayedRecords(),
+                recoveryStats.getReplayTime().toMillis());
+
+        if (snapshotInterval.isZero()) {
+            scheduler = null;
+        } else {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "user-snapshot");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long millis = snapshotInterval.toMillis();
+            scheduler.scheduleWithFixedDelay(this::scheduledSnapshot, millis, millis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public RecoveryStats getRecoveryStats() {
+        return recoveryStats;
+    }
+
+    /**
+     * Writes a snapshot of the current users and drops the log records it covers. Writers are not blocked;
+     * concurrent calls run one after another.
+     */
+    public void snapshot() throws IOException {
+        snapshotLock.lock();
+        try {
+            long lsn = wal.lastLsn();
+            long start = System.nanoTime();
+            int count = snapshots.write(lsn, delegate.ids(), delegate::get);
+            wal.compact(lsn);
+            log.info("Wrote snapshot of {} users at LSN {} in {} ms.",
+                    count, lsn, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    @Override
+    public User get(int id) {
+        return delegate.get(id);
+    }
+
+    @Override
+    public void put(User user, BiConsumer<User, User> onChange) {
+        long[] lsn = new long[1];
+        delegate.put(user, logged(onChange, lsn));
+        wal.awaitDurable(lsn[0]);
+    }
+
+    /**
+     * Logs the whole batch before waiting, so it is made durable by as few fsyncs as the log needs.
+     */
+    @Override
+    public void putAll(List<User> users, BiConsumer<User, User> onChange) {
+        long[] lsn = new long[1];
+        BiConsumer<User, User> logged = logged(onChange, lsn);
+        for (User user : users) {
+            delegate.put(user, logged);
+        }
+        wal.awaitDurable(lsn[0]);
+    }
+
+    @Override
+    public void remove(int id, BiConsumer<User, User> onChange) {
+        long[] lsn = new long[1];
+        delegate.remove(id, logged(onChange, lsn));
+        wal.awaitDurable(lsn[0]);
+    }
+
+    @Override
+    public IntStream ids() {
+        return delegate.ids();
+    }
+
+    @Override
+    public int size() {
+        return delegate.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (Objects.nonNull(scheduler)) {
+            scheduler.shutdownNow();
+        }
+        snapshotLock.lock();
+        try {
+            wal.close();
+            delegate.close();
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    private RecoveryStats recover() {
+        int[] snapshotUsers = new int[1];
+        long start = System.nanoTime();
+        long snapshotLsn = snapshots.load(user -> {
+            delegate.put(user, NO_CHANGE_LISTENER);
+            snapshotUsers[0]++;
+        });
+        long loaded = System.nanoTime();
+        wal.advanceTo(snapshotLsn);
+        int replayed = wal.replay(snapshotLsn, record -> {
+            if (record.getType() == WalRecord.Type.PUT) {
+                delegate.put(record.getUser(), NO_CHANGE_LISTENER);
+            } else {
+                delegate.remove(record.getId(), NO_CHANGE_LISTENER);
+            }
+        });
+        long replayedAt = System.nanoTime();
+        return new RecoveryStats(snapshotLsn, snapshotUsers[0], Duration.ofNanos(loaded - start),
+                replayed, Duration.ofNanos(replayedAt - loaded));
+    }
+
+    private void scheduledSnapshot() {
+        try {
+            snapshot();
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to write a user snapshot.", e);
+        }
+    }
+
+    private BiConsumer<User, User> logged(BiConsumer<User, User> onChange, long[] lsn) {
+        return (previous, current) -> {
+            lsn[0] = append(previous, current);
+            try {
+                onChange.accept(previous, current);
+            } catch (RuntimeException e) {
+                // The store undoes the write, so the log has to as well.
+                lsn[0] = append(current, previous);
+                throw e;
+            }
+        };
+    }
+
+    private long append(User previous, User current) {
+        return Objects.isNull(current) ? wal.appendDelete(previous.getId()) : wal.appendPut(current);
+    }
+}
@@ -0,0 +1,417 @@
+package com.Maksym.Savienkov.userstestassignmentapp.repository.wal;
+
+import com.Maksym.Savienkov.userstestassignmentapp.model.User;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of user mutations with group commit.
+ * <p>
+ * Writers only enqueue an encoded record and get its log sequence number (LSN) back. A single flusher thread
+ * drains everything queued so far, writes it with one {@code write} and makes it durable with one
+ * {@code fsync}, so concurrent writers share the cost of a sync instead of paying for one each.
+ * <p>
+ * Every record is framed as {@code [payload length][CRC32][LSN][payload]}; the checksum covers the LSN and the
+ * payload. The file is read once, by {@link #replay(long, Consumer)} or by the first append if nothing is replayed;
+ * that pass finds the last LSN and cuts off a torn or corrupt tail left by a crash.
+ * <p>
+ * Once a snapshot covers everything up to some LSN, {@link #compact(long)} drops those records from the file.
+ */
+@Slf4j
+public class WriteAheadLog implements AutoCloseable {
+    private static final int FRAME_HEADER = Integer.BYTES + Integer.BYTES + Long.BYTES;
+    private static final int MAX_PAYLOAD = 1 << 20;
+
+    private final Path file;
+    private final ReentrantLock fileLock = new ReentrantLock();
+    private FileChannel channel;
+    private final Durability durability;
+    private final long batchWindowNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    private final Condition flushed = lock.newCondition();
+    private final Thread flusher;
+    private final CRC32 crc = new CRC32();
+    private ByteBuffer batchBuffer = ByteBuffer.allocateDirect(1 << 16);
+    private List<byte[]> pending = new ArrayList<>();
+    private long lastLsn;
+    private long durableLsn;
+    private IOException failure;
+    private boolean closed;
+    // Written with the file lock held.
+    private volatile boolean recovered;
+
+    public WriteAheadLog(Path file, Durability durability, Duration batchWindow) throws IOException {
+        this.file = file;
+        this.durability = durability;
+        this.batchWindowNanos = batchWindow.toNanos();
+        if (Objects.nonNull(file.getParent())) {
+            Files.createDirectories(file.getParent());
+        }
+        channel = open(file);
+
+        flusher = new Thread(this::flushLoop, "user-wal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Feeds every record after {@code afterLsn} to {@code consumer} in LSN order and returns how many there were.
+     * Must be called once on startup, before anything is appended; records up to {@code afterLsn} are only checked,
+     * not decoded.
+     */
+    public int replay(long afterLsn, Consumer<WalRecord> consumer) {
+        fileLock.lock();
+        try {
+            if (recovered) {
+                throw new IllegalStateException("Write-ahead log " + file + " was already read.");
+            }
+            return recover(afterLsn, consumer);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to replay " + file + ".", e);
+        } finally {
+            fileLock.unlock();
+        }
+    }
+
+    public long appendPut(User user) {
+        return append(WalRecord.encodePut(user));
+    }
+
+    public long appendDelete(int id) {
+        return append(WalRecord.encodeDelete(id));
+    }
+
+    /**
+     * Blocks until the record with the given LSN is on disk, unless the log runs in {@link Durability#ASYNC} mode.
+     */
+    public void awaitDurable(long lsn) {
+        if (durability == Durability.ASYNC) {
+            return;
+        }
+        lock.lock();
+        try {
+            while (durableLsn < lsn) {
+                if (Objects.nonNull(failure)) {
+                    throw new UncheckedIOException("Write-ahead log " + file + " is unavailable.", failure);
+                }
+                flushed.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Makes the next LSN follow {@code lsn}, so records appended after a snapshot whose records were already
+     * compacted away never get an LSN the snapshot claims to contain.
+     */
+    public void advanceTo(long lsn) {
+        lock.lock();
+        try {
+            if (lsn > lastLsn) {
+                lastLsn = lsn;
+                durableLsn = Math.max(durableLsn, lsn);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Rewrites the file without the records up to {@code upToLsn}. The flusher waits for the rewrite, appenders do not.
+     */
+    public void compact(long upToLsn) throws IOException {
+        fileLock.lock();
+        try {
+            if (!recovered) {
+                recover(Long.MAX_VALUE, record -> { });
+            }
+            long start = offsetAfter(upToLsn);
+            if (start == 0) {
+                return;
+            }
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (FileChannel target = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                long end = channel.size();
+                for (long position = start; position < end; ) {
+                    position += channel.transferTo(position, end - position, target);
+                }
+                target.force(true);
+            }
+            channel.close();
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            channel = open(file);
+            channel.position(channel.size());
+        } finally {
+            fileLock.unlock();
+        }
+    }
+
+    public long lastLsn() {
+        awaitRecovered();
+        lock.lock();
+        try {
+            return lastLsn;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Flushes whatever is still queued and closes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            closed = true;
+            appended.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        fileLock.lock();
+        try {
+            channel.close();
+        } finally {
+            fileLock.unlock();
+        }
+    }
+
+    private long append(byte[] payload) {
+        if (payload.length > MAX_PAYLOAD) {
+            throw new IllegalArgumentException("Log record of " + payload.length + " bytes is too large.");
+        }
+        awaitRecovered();
+        lock.lock();
+        try {
+            if (Objects.nonNull(failure)) {
+                throw new UncheckedIOException("Write-ahead log " + file + " is unavailable.", failure);
+            }
+            if (closed) {
+                throw new IllegalStateException("Write-ahead log " + file + " is closed.");
+            }
+            pending.add(payload);
+            appended.signal();
+            return ++lastLsn;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void flushLoop() {
+        while (true) {
+            List<byte[]> batch;
+            long batchLastLsn;
+            lock.lock();
+            try {
+                while (pending.isEmpty() && !closed) {
+                    appended.awaitUninterruptibly();
+                }
+                if (pending.isEmpty()) {
+                    return;
+                }
+                if (durability != Durability.SYNC) {
+                    linger();
+                }
+                batch = pending;
+                batchLastLsn = lastLsn;
+                pending = new ArrayList<>();
+            } finally {
+                lock.unlock();
+            }
+
+            IOException error = null;
+            fileLock.lock();
+            try {
+                write(batch, batchLastLsn - batch.size() + 1);
+                channel.force(false);
+            } catch (IOException e) {
+                error = e;
+                log.error("Failed to write {} records to {}.", batch.size(), file, e);
+            } finally {
+                fileLock.unlock();
+            }
+
+            lock.lock();
+            try {
+                if (Objects.isNull(error)) {
+                    durableLsn = batchLastLsn;
+                } else {
+                    failure = error;
+                }
+                flushed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            if (Objects.nonNull(error)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Keeps collecting records for the rest of the batch window. Called with the lock held.
+     */
+    private void linger() {
+        long remaining = batchWindowNanos;
+        try {
+            while (remaining > 0 && !closed) {
+                remaining = appended.awaitNanos(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void write(List<byte[]> batch, long firstLsn) throws IOException {
+        int size = 0;
+        for (byte[] payload : batch) {
+            size += FRAME_HEADER + payload.length;
+        }
+        if (batchBuffer.capacity() < size) {
+            batchBuffer = ByteBuffer.allocateDirect(Math.max(size, batchBuffer.capacity() * 2));
+        }
+        ByteBuffer buffer = batchBuffer.clear();
+        long lsn = firstLsn;
+        for (byte[] payload : batch) {
+            int start = buffer.position();
+            buffer.putInt(payload.length)
+                    .putInt(0)
+                    .putLong(lsn++)
+                    .put(payload);
+            crc.reset();
+            crc.update(buffer.slice(start + 2 * Integer.BYTES, Long.BYTES + payload.length));
+            buffer.putInt(start + Integer.BYTES, (int) crc.getValue());
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Returns the offset of the first record after {@code lsn}, or the end of the file if there is none.
+     * Called with the file lock held, when the file contains only complete records.
+     */
+    private long offsetAfter(long lsn) throws IOException {
+        long offset = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            while (true) {
+                int length = in.readInt();
+                in.skipNBytes(Integer.BYTES);
+                if (in.readLong() > lsn) {
+                    return offset;
+                }
+                in.skipNBytes(length);
+                offset += FRAME_HEADER + length;
+            }
+        } catch (EOFException e) {
+            return offset;
+        }
+    }
+
+    private static FileChannel open(Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Reads the file when nothing was replayed, so the next LSN follows the ones already logged.
+     */
+    private void awaitRecovered() {
+        if (recovered) {
+            return;
+        }
+        fileLock.lock();
+        try {
+            if (!recovered) {
+                recover(Long.MAX_VALUE, record -> { });
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read " + file + ".", e);
+        } finally {
+            fileLock.unlock();
+        }
+    }
+
+    /**
+     * Reads records from the start of the file until the end or the first incomplete or corrupt one, feeds those
+     * after {@code afterLsn} to {@code consumer}, then cuts off the rest and continues the LSNs from the last good
+     * record. Called with the file lock held, before anything is appended. Returns how many records were fed.
+     */
+    private int recover(long afterLsn, Consumer<WalRecord> consumer) throws IOException {
+        CRC32 checksum = new CRC32();
+        long end = 0;
+        long last = 0;
+        int replayed = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            while (true) {
+                byte[] frame;
+                int expected;
+                try {
+                    int length = in.readInt();
+                    expected = in.readInt();
+                    if (length < 0 || length > MAX_PAYLOAD) {
+                        break;
+                    }
+                    frame = new byte[Long.BYTES + length];
+                    in.readFully(frame);
+                } catch (EOFException e) {
+                    break;
+                }
+                checksum.reset();
+                checksum.update(frame);
+                if ((int) checksum.getValue() != expected) {
+                    break;
+                }
+                ByteBuffer record = ByteBuffer.wrap(frame);
+                last = record.getLong();
+                if (last > afterLsn) {
+                    consumer.accept(WalRecord.decode(last, record));
+                    replayed++;
+                }
+                end += Integer.BYTES + frame.length + Integer.BYTES;
+            }
+        }
+        if (end < channel.size()) {
+            log.warn("Truncating {} bytes of incomplete records at the end of {}.", channel.size() - end, file);
+            channel.truncate(end);
+        }
+        channel.position(end);
+
+        lock.lock();
+        try {
+            lastLsn = Math.max(lastLsn, last);
+            durableLsn = Math.max(durableLsn, lastLsn);
+        } finally {
+            lock.unlock();
+        }
+        recovered = true;
+        return replayed;
+    }
+}
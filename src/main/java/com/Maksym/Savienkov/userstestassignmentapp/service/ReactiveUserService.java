@@ -0,0 +1,127 @@
+package com.Maksym.Savienkov.userstestassignmentapp.service;
+
+import com.Maksym.Savienkov.userstestassignmentapp.dto.UserDto;
+import com.Maksym.Savienkov.userstestassignmentapp.exception.ConflictException;
+import com.Maksym.Savienkov.userstestassignmentapp.exception.DuplicateEmailException;
+import com.Maksym.Savienkov.userstestassignmentapp.exception.InvalidRequestException;
+import com.Maksym.Savienkov.userstestassignmentapp.exception.NotFoundException;
+import com.Maksym.Savienkov.userstestassignmentapp.exception.validation.UserValidationException;
+import com.Maksym.Savienkov.userstestassignmentapp.logging.RateLimitedLogger;
+import com.Maksym.Savienkov.userstestassignmentapp.mapper.UserMapper;
+import com.Maksym.Savienkov.userstestassignmentapp.model.User;
+import com.Maksym.Savienkov.userstestassignmentapp.repository.ReactiveUserRepository;
+import com.Maksym.Savienkov.userstestassignmentapp.validator.UserValidator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDate;
+
+/**
+ * Reactive counterpart of {@link UserService} over a {@link ReactiveUserRepository}. Users are mapped and
+ * validated by the same {@link UserMapper} and {@link UserValidator}, and failures surface as the same
+ * exceptions with the same messages, delivered as error signals.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReactiveUserService {
+    private static final RateLimitedLogger outcomeLog =
+            new RateLimitedLogger(log, RateLimitedLogger.MESSAGES_PER_SECOND, Duration.ofSeconds(1));
+    private static final RateLimitedLogger failureLog =
+            new RateLimitedLogger(log, RateLimitedLogger.MESSAGES_PER_SECOND, Duration.ofSeconds(1));
+
+    private final ReactiveUserRepository repository;
+    private final UserMapper mapper;
+    private final UserValidator validator;
+
+    public Mono<Integer> create(UserDto userDto) {
+        return Mono.fromCallable(() -> {
+                    log.debug("Try to create new user");
+                    User user = mapper.toModel(userDto);
+                    validator.validate(user);
+                    return user;
+                })
+                .flatMap(repository::save)
+                .doOnNext(id -> outcomeLog.info(UserService.CREATE, "User created with id: {}.", id))
+                .onErrorMap(UserValidationException.class, e -> invalid(UserService.CREATE, "create user", e))
+                .onErrorMap(DuplicateEmailException.class, e -> conflict(UserService.CREATE, "create user", e));
+    }
+
+    public Mono<User> getById(Integer id) {
+        return repository.getById(id)
+                .switchIfEmpty(Mono.error(() -> notFound(id)));
+    }
+
+    /**
+     * Same query as {@link UserService#streamByBirthdate(LocalDate, LocalDate)}; users are read from the birthdate
+     * index only as fast as the subscriber requests them.
+     */
+    public Flux<User> streamByBirthdate(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            failureLog.warn(UserService.STREAM_BY_BIRTHDATE, "Failed to get users. 'from' cannot be after 'to'.");
+            return Flux.error(new InvalidRequestException("Failed to get users. 'from' cannot be after 'to'."));
+        }
+        return repository.streamByBirthdate(from, to, null);
+    }
+
+    public Mono<Void> update(Integer id, UserDto userDto) {
+        return repository.getById(id)
+                .doFirst(() -> log.debug("Try to update user with id: {}", id))
+                .switchIfEmpty(Mono.error(() -> notFound(id)))
+                .map(existing -> {
+                    User user = mapper.toModel(userDto);
+                    user.setId(existing.getId());
+                    validator.validate(user);
+                    return user;
+                })
+                .flatMap(repository::save)
+                .doOnNext(saved -> outcomeLog.info(UserService.UPDATE, "User with id: {} updated successfully", id))
+                .onErrorMap(UserValidationException.class, e -> invalid(UserService.UPDATE, "update user", e))
+                .onErrorMap(DuplicateEmailException.class, e -> conflict(UserService.UPDATE, "update user", e))
+                .then();
+    }
+
+    public Mono<Void> patch(Integer id, UserDto userDto) {
+        return Mono.fromRunnable(() -> {
+                    log.debug("Try to patch user with id: {}", id);
+                    validator.validatePatch(userDto);
+                })
+                .then(repository.getById(id))
+                .switchIfEmpty(Mono.error(() -> notFound(id)))
+                .map(existing -> {
+                    User user = existing.toBuilder().build();
+                    mapper.patch(user, userDto);
+                    return user;
+                })
+                .flatMap(repository::save)
+                .doOnNext(saved -> outcomeLog.info(UserService.PATCH, "User with id: {} patched successfully", id))
+                .onErrorMap(UserValidationException.class, e -> invalid(UserService.PATCH, "patch user", e))
+                .onErrorMap(DuplicateEmailException.class, e -> conflict(UserService.PATCH, "patch user", e))
+                .then();
+    }
+
+    public Mono<Void> delete(Integer id) {
+        return repository.deleteById(id)
+                .doFirst(() -> log.debug("Try to delete user with id: {}", id))
+                .doOnSuccess(ignored -> outcomeLog.info(UserService.DELETE, "User with id: {} no longer exists", id));
+    }
+
+    private static InvalidRequestException invalid(String operation, String action, UserValidationException e) {
+        failureLog.warn(operation, "Failed to {}. {}", action, e.getMessage());
+        return new InvalidRequestException("Failed to " + action + ". " + e.getMessage());
+    }
+
+    private static ConflictException conflict(String operation, String action, DuplicateEmailException e) {
+        failureLog.warn(operation, "Failed to {}. {}", action, e.getMessage());
+        return new ConflictException("Failed to " + action + ". " + e.getMessage());
+    }
+
+    private static NotFoundException notFound(Integer id) {
+        log.debug("User with id: {} not found.", id);
+        return new NotFoundException("User with id '" + id + "' not found.");
+    }
+}
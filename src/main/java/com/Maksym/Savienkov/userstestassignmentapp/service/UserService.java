@@ -1,112 +1,365 @@
 package com.Maksym.Savienkov.userstestassignmentapp.service;
 
+import com.Maksym.Savienkov.userstestassignmentapp.dto.UserBatchItemResultDto;
 import com.Maksym.Savienkov.userstestassignmentapp.dto.UserDto;
+import com.Maksym.Savienkov.userstestassignmentapp.exception.ConflictException;
+import com.Maksym.Savienkov.userstestassignmentapp.exception.DuplicateEmailException;
 import com.Maksym.Savienkov.userstestassignmentapp.exception.GetByBirthdateRequestBoundsException;
+import com.Maksym.Savienkov.userstestassignmentapp.exception.InvalidCursorException;
 import com.Maksym.Savienkov.userstestassignmentapp.exception.InvalidRequestException;
+import com.Maksym.Savienkov.userstestassignmentapp.exception.NotFoundException;
+import com.Maksym.Savienkov.userstestassignmentapp.exception.RequestParameterException;
 import com.Maksym.Savienkov.userstestassignmentapp.exception.validation.UserValidationException;
+import com.Maksym.Savienkov.userstestassignmentapp.logging.RateLimitedLogger;
 import com.Maksym.Savienkov.userstestassignmentapp.mapper.UserMapper;
+import com.Maksym.Savienkov.userstestassignmentapp.model.BirthdateCursor;
 import com.Maksym.Savienkov.userstestassignmentapp.model.User;
-import com.Maksym.Savienkov.userstestassignmentapp.repository.RepositoryStub;
+import com.Maksym.Savienkov.userstestassignmentapp.model.UserPage;
+import com.Maksym.Savienkov.userstestassignmentapp.model.UserQuery;
+import com.Maksym.Savienkov.userstestassignmentapp.repository.UserRepository;
+import com.Maksym.Savienkov.userstestassignmentapp.repository.index.PhoneNumberIndex;
 import com.Maksym.Savienkov.userstestassignmentapp.validator.UserValidator;
+import com.Maksym.Savienkov.userstestassignmentapp.validator.ValidationResult;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.springframework.util.ReflectionUtils;
 
-import java.lang.reflect.Field;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class UserService {
-    private final RepositoryStub repository;
+    public static final int MAX_PAGE_LIMIT = 1000;
+    public static final int MAX_BATCH_SIZE = 50_000;
+    public static final int MAX_BIRTHDAY_WINDOW_DAYS = 366;
+    static final int VALIDATION_SLICE_SIZE = 1024;
+
+    static final String CREATE = "create";
+    static final String CREATE_ALL = "create_all";
+    static final String GET_BY_BIRTHDATE = "get_by_birthdate";
+    static final String STREAM_BY_BIRTHDATE = "stream_by_birthdate";
+    static final String GET_BY_EMAIL = "get_by_email";
+    static final String GET_BY_PHONE_NUMBER = "get_by_phone_number";
+    static final String SEARCH_BY_NAME = "search_by_name";
+    static final String QUERY = "query";
+    static final String GET_UPCOMING_BIRTHDAYS = "get_upcoming_birthdays";
+    static final String UPDATE = "update";
+    static final String PATCH = "patch";
+    static final String DELETE = "delete";
+
+    // Per-request outcomes are rate limited per operation. Request details are logged at debug.
+    private static final RateLimitedLogger outcomeLog =
+            new RateLimitedLogger(log, RateLimitedLogger.MESSAGES_PER_SECOND, Duration.ofSeconds(1));
+    private static final RateLimitedLogger failureLog =
+            new RateLimitedLogger(log, RateLimitedLogger.MESSAGES_PER_SECOND, Duration.ofSeconds(1));
+
+    private final UserRepository repository;
     private final UserMapper mapper;
     private final UserValidator validator;
+    private final UserServiceMetrics metrics;
+    // The application task executor; it runs on virtual threads when spring.threads.virtual.enabled is set.
+    private final Executor taskExecutor;
 
     public Integer create(UserDto userDto) {
-        log.info("Try to create new user");
-        User user = mapper.toModel(userDto);
-        try {
-            validator.validate(user);
-            Integer id = repository.save(user);
-            log.info("User created with id: " + id + ".");
-            return id;
-        } catch (UserValidationException e) {
-            log.error("Failed to create user." + e.getMessage());
-            throw new InvalidRequestException("Failed to create user. " + e.getMessage());
-        }
+        return metrics.record(CREATE, () -> {
+            log.debug("Try to create new user");
+            User user = mapper.toModel(userDto);
+            try {
+                validate(CREATE, () -> validator.validate(user));
+                Integer id = repository.save(user);
+                outcomeLog.info(CREATE, "User created with id: {}.", id);
+                return id;
+            } catch (UserValidationException e) {
+                failureLog.warn(CREATE, "Failed to create user. {}", e.getMessage());
+                throw new InvalidRequestException("Failed to create user. " + e.getMessage());
+            } catch (DuplicateEmailException e) {
+                failureLog.warn(CREATE, "Failed to create user. {}", e.getMessage());
+                throw new ConflictException("Failed to create user. " + e.getMessage());
+            }
+        });
     }
 
-    public List<User> getByBirthdate(LocalDate from, LocalDate to) {
-        try {
-            if (from.isAfter(to)) {
-                throw new GetByBirthdateRequestBoundsException("'from' cannot be after 'to'.");
+    /**
+     * Creates every valid user of the batch with a single repository call. Invalid items and items whose email
+     * is already taken are reported by position and do not prevent the valid ones from being created.
+     */
+    public List<UserBatchItemResultDto> createAll(List<UserDto> userDtos) {
+        return metrics.record(CREATE_ALL, () -> {
+            log.debug("Try to create {} users", userDtos.size());
+            if (userDtos.size() > MAX_BATCH_SIZE) {
+                failureLog.warn(CREATE_ALL, "Failed to create users. Batch size {} exceeds {}.", userDtos.size(), MAX_BATCH_SIZE);
+                throw new InvalidRequestException("Failed to create users. Batch cannot contain more than " + MAX_BATCH_SIZE + " users.");
             }
-            return repository.getAll().stream()
-                    .filter(x -> (x.getBirthdate().isAfter(from) || x.getBirthdate().isEqual(from))
-                            && (x.getBirthdate().isBefore(to) || x.getBirthdate().isEqual(to)))
+
+            List<User> users = userDtos.stream()
+                    .map(mapper::toModel)
                     .collect(Collectors.toList());
+            List<ValidationResult> validationResults = checkAll(users);
 
-        } catch (GetByBirthdateRequestBoundsException e) {
-            log.error("Failed to get users." + e.getMessage());
-            throw new InvalidRequestException("Failed to get users. " + e.getMessage());
-        }
+            List<User> validUsers = new ArrayList<>(users.size());
+            for (int i = 0; i < users.size(); i++) {
+                if (validationResults.get(i).isValid()) {
+                    validUsers.add(users.get(i));
+                }
+            }
+            metrics.validated(CREATE_ALL, validUsers.size(), users.size() - validUsers.size());
+            Iterator<Integer> ids = repository.saveAll(validUsers).iterator();
+
+            List<UserBatchItemResultDto> results = new ArrayList<>(users.size());
+            int created = 0;
+            for (int i = 0; i < users.size(); i++) {
+                ValidationResult validationResult = validationResults.get(i);
+                if (!validationResult.isValid()) {
+                    results.add(UserBatchItemResultDto.rejected(i, validationResult.getMessages()));
+                    continue;
+                }
+                Integer id = ids.next();
+                if (Objects.isNull(id)) {
+                    results.add(UserBatchItemResultDto.rejected(i, List.of(DuplicateEmailException.message(users.get(i).getEmail()))));
+                } else {
+                    results.add(UserBatchItemResultDto.created(i, id));
+                    created++;
+                }
+            }
+            outcomeLog.info(CREATE_ALL, "Created {} of {} users.", created, users.size());
+            return results;
+        });
+    }
+
+    public UserPage getByBirthdate(LocalDate from, LocalDate to, int limit, String cursor) {
+        return metrics.record(GET_BY_BIRTHDATE, () -> {
+            try {
+                if (from.isAfter(to)) {
+                    throw new GetByBirthdateRequestBoundsException("'from' cannot be after 'to'.");
+                }
+                if (limit < 1 || limit > MAX_PAGE_LIMIT) {
+                    throw new GetByBirthdateRequestBoundsException("'limit' must be between 1 and " + MAX_PAGE_LIMIT + ".");
+                }
+                BirthdateCursor after = Objects.isNull(cursor) ? null : BirthdateCursor.decode(cursor);
+
+                // Fetch one extra user to find out whether there is a next page without a second query.
+                List<User> users = repository.getByBirthdate(from, to, after, limit + 1);
+                if (users.size() <= limit) {
+                    return new UserPage(users, null);
+                }
+                List<User> page = users.subList(0, limit);
+                return new UserPage(page, BirthdateCursor.of(page.get(limit - 1)));
+            } catch (GetByBirthdateRequestBoundsException | InvalidCursorException e) {
+                failureLog.warn(GET_BY_BIRTHDATE, "Failed to get users. {}", e.getMessage());
+                throw new InvalidRequestException("Failed to get users. " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Same query as {@link #getByBirthdate(LocalDate, LocalDate, int, String)} without paging: users are
+     * pulled from the birthdate index one at a time as the returned stream is consumed.
+     */
+    public Stream<User> streamByBirthdate(LocalDate from, LocalDate to) {
+        return metrics.recordStream(STREAM_BY_BIRTHDATE, () -> {
+            try {
+                if (from.isAfter(to)) {
+                    throw new GetByBirthdateRequestBoundsException("'from' cannot be after 'to'.");
+                }
+                return repository.streamByBirthdate(from, to, null);
+            } catch (GetByBirthdateRequestBoundsException e) {
+                failureLog.warn(STREAM_BY_BIRTHDATE, "Failed to get users. {}", e.getMessage());
+                throw new InvalidRequestException("Failed to get users. " + e.getMessage());
+            }
+        });
+    }
+
+    public User getByEmail(String email) {
+        return metrics.record(GET_BY_EMAIL, () -> {
+            User user = repository.getByEmail(email);
+            if (Objects.isNull(user)) {
+                log.debug("User with email: {} not found.", email);
+                throw new NotFoundException("User with email '" + email + "' not found.");
+            }
+            return user;
+        });
+    }
+
+    public List<User> getByPhoneNumber(String phoneNumber) {
+        return metrics.record(GET_BY_PHONE_NUMBER, () -> {
+            if (Objects.isNull(PhoneNumberIndex.normalize(phoneNumber))) {
+                failureLog.warn(GET_BY_PHONE_NUMBER, "Failed to get users. Phone number {} has no digits.", phoneNumber);
+                throw new InvalidRequestException("Failed to get users. 'phoneNumber' must contain digits.");
+            }
+            return repository.getByPhoneNumber(phoneNumber);
+        });
+    }
+
+    public List<User> searchByName(String query, int limit) {
+        return metrics.record(SEARCH_BY_NAME, () -> {
+            if (Objects.isNull(query) || query.isBlank()) {
+                failureLog.warn(SEARCH_BY_NAME, "Failed to search users. Query is blank.");
+                throw new InvalidRequestException("Failed to search users. 'q' cannot be blank.");
+            }
+            if (limit < 1 || limit > MAX_PAGE_LIMIT) {
+                failureLog.warn(SEARCH_BY_NAME, "Failed to search users. Limit {} is out of bounds.", limit);
+                throw new InvalidRequestException("Failed to search users. 'limit' must be between 1 and " + MAX_PAGE_LIMIT + ".");
+            }
+            return repository.searchByName(query, limit);
+        });
+    }
+
+    public List<User> query(UserQuery query, int limit) {
+        return metrics.record(QUERY, () -> {
+            try {
+                if (Objects.isNull(query.getBirthdateFrom()) != Objects.isNull(query.getBirthdateTo())) {
+                    throw new RequestParameterException("'birthdateFrom' and 'birthdateTo' must be given together.");
+                }
+                if (query.hasBirthdateRange() && query.getBirthdateFrom().isAfter(query.getBirthdateTo())) {
+                    throw new RequestParameterException("'birthdateFrom' cannot be after 'birthdateTo'.");
+                }
+                if (UserQuery.isSet(query.getBirthMonths())
+                        && query.getBirthMonths().stream().anyMatch(month -> month < 1 || month > 12)) {
+                    throw new RequestParameterException("'birthMonth' must be between 1 and 12.");
+                }
+                if (limit < 1 || limit > MAX_PAGE_LIMIT) {
+                    throw new RequestParameterException("'limit' must be between 1 and " + MAX_PAGE_LIMIT + ".");
+                }
+                return repository.query(query, limit);
+            } catch (RequestParameterException e) {
+                failureLog.warn(QUERY, "Failed to query users. {}", e.getMessage());
+                throw new InvalidRequestException("Failed to query users. " + e.getMessage());
+            }
+        });
+    }
+
+    public List<User> getUpcomingBirthdays(LocalDate from, int days, int limit) {
+        return metrics.record(GET_UPCOMING_BIRTHDAYS, () -> {
+            try {
+                if (days < 1 || days > MAX_BIRTHDAY_WINDOW_DAYS) {
+                    throw new RequestParameterException("'days' must be between 1 and " + MAX_BIRTHDAY_WINDOW_DAYS + ".");
+                }
+                if (limit < 1 || limit > MAX_PAGE_LIMIT) {
+                    throw new RequestParameterException("'limit' must be between 1 and " + MAX_PAGE_LIMIT + ".");
+                }
+                return repository.getUpcomingBirthdays(from, days, limit);
+            } catch (RequestParameterException e) {
+                failureLog.warn(GET_UPCOMING_BIRTHDAYS, "Failed to get upcoming birthdays. {}", e.getMessage());
+                throw new InvalidRequestException("Failed to get upcoming birthdays. " + e.getMessage());
+            }
+        });
+    }
+
+    public boolean existsById(Integer id) {
+        return Objects.nonNull(id) && Objects.nonNull(repository.getByid(id));
     }
 
     public void update(Integer id, UserDto userDto) {
-        log.info("Try to update user with id: " + id);
+        metrics.record(UPDATE, () -> {
+            log.debug("Try to update user with id: {}", id);
 
-        try {
-            User user = repository.getByid(id);
-            user.setEmail(userDto.getEmail());
-            user.setFirstName(userDto.getFirstName());
-            user.setLastName(userDto.getLastName());
-            user.setBirthdate(userDto.getBirthdate());
-            user.setAddress(userDto.getAddress());
-            user.setPhoneNumber(userDto.getPhoneNumber());
-            validator.validate(user);
-            repository.save(user);
-            log.info("User with id: " + id + " updated successfully");
-        } catch (UserValidationException e) {
-            log.error("Failed to update user." + e.getMessage());
-            throw new InvalidRequestException("Failed to update user. " + e.getMessage());
-        }
+            try {
+                User user = copyOfExisting(id);
+                user.setEmail(userDto.getEmail());
+                user.setFirstName(userDto.getFirstName());
+                user.setLastName(userDto.getLastName());
+                user.setBirthdate(userDto.getBirthdate());
+                user.setAddress(userDto.getAddress());
+                user.setPhoneNumber(userDto.getPhoneNumber());
+                validate(UPDATE, () -> validator.validate(user));
+                repository.save(user);
+                outcomeLog.info(UPDATE, "User with id: {} updated successfully", id);
+            } catch (UserValidationException e) {
+                failureLog.warn(UPDATE, "Failed to update user. {}", e.getMessage());
+                throw new InvalidRequestException("Failed to update user. " + e.getMessage());
+            } catch (DuplicateEmailException e) {
+                failureLog.warn(UPDATE, "Failed to update user. {}", e.getMessage());
+                throw new ConflictException("Failed to update user. " + e.getMessage());
+            }
+        });
     }
 
     public void patch(Integer id, UserDto userDto) {
-        log.info("Try to patch user with id: " + id);
+        metrics.record(PATCH, () -> {
+            log.debug("Try to patch user with id: {}", id);
 
+            try {
+                validate(PATCH, () -> validator.validatePatch(userDto));
+                User user = copyOfExisting(id);
+                mapper.patch(user, userDto);
+                repository.save(user);
+                outcomeLog.info(PATCH, "User with id: {} patched successfully", id);
+            } catch (UserValidationException e) {
+                failureLog.warn(PATCH, "Failed to patch user. {}", e.getMessage());
+                throw new InvalidRequestException("Failed to patch user. " + e.getMessage());
+            } catch (DuplicateEmailException e) {
+                failureLog.warn(PATCH, "Failed to patch user. {}", e.getMessage());
+                throw new ConflictException("Failed to patch user. " + e.getMessage());
+            }
+        });
+    }
+
+    public void delete(Integer id) {
+        metrics.record(DELETE, () -> {
+            log.debug("Try to delete user with id: {}", id);
+            repository.deleteById(id);
+            outcomeLog.info(DELETE, "User with id: {} no longer exists", id);
+        });
+    }
+
+    /**
+     * Validation is CPU-bound and independent per item, so batches larger than one slice are checked slice by slice
+     * on the task executor, in parallel with the calling thread waiting for them.
+     */
+    private List<ValidationResult> checkAll(List<User> users) {
+        if (users.size() <= VALIDATION_SLICE_SIZE) {
+            return users.stream().map(validator::check).toList();
+        }
+        List<CompletableFuture<List<ValidationResult>>> slices = new ArrayList<>();
+        for (int from = 0; from < users.size(); from += VALIDATION_SLICE_SIZE) {
+            List<User> slice = users.subList(from, Math.min(users.size(), from + VALIDATION_SLICE_SIZE));
+            slices.add(CompletableFuture.supplyAsync(() -> slice.stream().map(validator::check).toList(), taskExecutor));
+        }
+        List<ValidationResult> results = new ArrayList<>(users.size());
         try {
-            validator.validatePatch(userDto);
-            User user = repository.getByid(0);
-
-            for (Field field : UserDto.class.getDeclaredFields()) {
-                field.setAccessible(true);
-                Object userDtoFieldValue = ReflectionUtils.getField(field, userDto);
-                field.setAccessible(false);
-                if (Objects.nonNull(userDtoFieldValue)) {
-                    Field userField = ReflectionUtils.findField(User.class, field.getName());
-                    userField.setAccessible(true);
-                    ReflectionUtils.setField(userField, user, userDtoFieldValue);
-                    userField.setAccessible(false);
-                }
+            for (CompletableFuture<List<ValidationResult>> slice : slices) {
+                results.addAll(slice.join());
             }
-            repository.save(user);
-            log.info("User with id: " + id + " patched successfully");
-        } catch (UserValidationException e) {
-            log.error("Failed to patch user." + e.getMessage());
-            throw new InvalidRequestException("Failed to patch user. " + e.getMessage());
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
         }
+        return results;
     }
 
-    public void delete(Integer id) {
-        log.info("Try to delete user with id: " + id);
-        repository.deleteById(id);
-        log.info("User with id: " + id + " no longer exists");
+    /**
+     * Copy of the stored user with {@code id} that can be changed before saving it.
+     */
+    private User copyOfExisting(Integer id) {
+        User user = repository.getByid(id);
+        if (Objects.isNull(user)) {
+            log.debug("User with id: {} not found.", id);
+            throw new NotFoundException("User with id '" + id + "' not found.");
+        }
+        return user.toBuilder().build();
+    }
+
+    private void validate(String operation, Runnable validation) {
+        try {
+            validation.run();
+        } catch (UserValidationException e) {
+            metrics.validated(operation, 0, 1);
+            throw e;
+        }
+        metrics.validated(operation, 1, 0);
     }
 }
@@ -0,0 +1,96 @@
+package com.Maksym.Savienkov.userstestassignmentapp.service;
+
+import com.Maksym.Savienkov.userstestassignmentapp.exception.ConflictException;
+import com.Maksym.Savienkov.userstestassignmentapp.exception.InvalidRequestException;
+import com.Maksym.Savienkov.userstestassignmentapp.exception.NotFoundException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Meters of {@link UserService}.
+ * <p>
+ * {@code user.operations} times every service call, tagged with the {@code operation} and its {@code outcome}:
+ * {@code success}, {@code invalid}, {@code conflict}, {@code not_found} or {@code error}. Percentile histograms are
+ * switched on in {@code application.properties}, so p99 can be aggregated across instances.
+ * {@code user.validations} counts validator verdicts per {@code operation}, with {@code outcome} {@code valid} or
+ * {@code invalid}.
+ */
+@Component
+public class UserServiceMetrics {
+    public static final String OPERATIONS = "user.operations";
+    public static final String VALIDATIONS = "user.validations";
+
+    private final MeterRegistry registry;
+
+    public UserServiceMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public <T> T record(String operation, Supplier<T> call) {
+        Timer.Sample sample = Timer.start(registry);
+        String outcome = "error";
+        try {
+            T result = call.get();
+            outcome = "success";
+            return result;
+        } catch (RuntimeException e) {
+            outcome = outcome(e);
+            throw e;
+        } finally {
+            stop(sample, operation, outcome);
+        }
+    }
+
+    /**
+     * Times a call returning a lazily consumed stream until the stream is closed, so reading it is included.
+     * Callers must close the stream; one that is never closed is not recorded.
+     */
+    public <T> Stream<T> recordStream(String operation, Supplier<Stream<T>> call) {
+        Timer.Sample sample = Timer.start(registry);
+        Stream<T> stream;
+        try {
+            stream = call.get();
+        } catch (RuntimeException e) {
+            stop(sample, operation, outcome(e));
+            throw e;
+        }
+        return stream.onClose(() -> stop(sample, operation, "success"));
+    }
+
+    public void record(String operation, Runnable call) {
+        record(operation, () -> {
+            call.run();
+            return null;
+        });
+    }
+
+    private void stop(Timer.Sample sample, String operation, String outcome) {
+        sample.stop(registry.timer(OPERATIONS, "operation", operation, "outcome", outcome));
+    }
+
+    private static String outcome(RuntimeException e) {
+        if (e instanceof InvalidRequestException) {
+            return "invalid";
+        }
+        if (e instanceof ConflictException) {
+            return "conflict";
+        }
+        if (e instanceof NotFoundException) {
+            return "not_found";
+        }
+        return "error";
+    }
+
+    public void validated(String operation, long valid, long invalid) {
+        if (valid > 0) {
+            registry.counter(VALIDATIONS, "operation", operation, "outcome", "valid").increment(valid);
+        }
+        if (invalid > 0) {
+            registry.counter(VALIDATIONS, "operation", operation, "outcome", "invalid").increment(invalid);
+        }
+    }
+}
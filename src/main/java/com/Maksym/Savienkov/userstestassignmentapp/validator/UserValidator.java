@@ -8,144 +8,194 @@ import org.springframework.stereotype.Component;
 
 import java.time.LocalDate;
 import java.util.Objects;
+import java.util.regex.Pattern;
 
 @Component
 public class UserValidator {
-    private static final String EMAIL_PATTERN = "^[A-Za-z0-9_-]+(\\.[A-Za-z0-9_-]+){0,10}@[A-Za-z0-9-]+(\\.[A-Za-z0-9-]+){0,10}(\\.[A-Za-z]{2,})$";
-    private static final String PHONE_NUMBER_PATTERN = "^[\\+]?[0-9]{0,2}[(]?[0-9]{3}[)]?[-\\s\\.]?[0-9]{3}[-\\s\\.]?[0-9]{4,6}$";
+    private static final String SPECIAL_CHARACTERS = "_!#$%&'*+/=?`{|}~^-][";
+    private static final int MAX_EMAIL_LABELS = 11;
+    private static final Pattern PHONE_NUMBER_PATTERN = Pattern.compile("^[\\+]?[0-9]{0,2}[(]?[0-9]{3}[)]?[-\\s\\.]?[0-9]{3}[-\\s\\.]?[0-9]{4,6}$");
 
     private final Integer userValidAge;
-    private final UserValidationException exception;
 
     public UserValidator(@Value("${user.valid.age}") Integer userValidAge) {
-        this.exception = new UserValidationException();
         this.userValidAge = userValidAge;
     }
 
     public void validate(User user) {
+        throwIfInvalid(check(user));
+    }
+
+    public void validatePatch(UserDto userDto) {
+        throwIfInvalid(checkPatch(userDto));
+    }
+
+    /**
+     * Collects every violation of {@code user} without throwing.
+     */
+    public ValidationResult check(User user) {
+        ValidationResult result = new ValidationResult();
         if (Objects.isNull(user)) {
-            exception.addMessage("User cannot be null.");
+            result.addMessage("User cannot be null.");
         } else {
             if (Objects.nonNull(user.getEmail())) {
-                validateEmail(user.getEmail());
+                validateEmail(user.getEmail(), result);
             } else {
-                exception.addMessage("Email cannot be null.");
+                result.addMessage("Email cannot be null.");
             }
 
             if (Objects.nonNull(user.getFirstName())) {
-                validateFirstName(user.getFirstName());
+                validateFirstName(user.getFirstName(), result);
             } else {
-                exception.addMessage("First name cannot be null.");
+                result.addMessage("First name cannot be null.");
             }
 
             if (Objects.nonNull(user.getLastName())) {
-                validateLastName(user.getLastName());
+                validateLastName(user.getLastName(), result);
             } else {
-                exception.addMessage("Last name cannot be null.");
+                result.addMessage("Last name cannot be null.");
             }
 
             if (Objects.nonNull(user.getBirthdate())) {
-                validateBirthdate(user.getBirthdate());
+                validateBirthdate(user.getBirthdate(), result);
             } else {
-                exception.addMessage("Birthdate cannot be null.");
+                result.addMessage("Birthdate cannot be null.");
             }
             if (Objects.nonNull(user.getPhoneNumber())) {
-                validatePhoneNumber(user.getPhoneNumber());
+                validatePhoneNumber(user.getPhoneNumber(), result);
             }
 
         }
-
-        if (!exception.isEmpty()) {
-            throw exception;
-        }
+        return result;
     }
 
-    public void validatePatch(UserDto userDto) {
+    /**
+     * Collects every violation among the non-null fields of {@code userDto} without throwing.
+     */
+    public ValidationResult checkPatch(UserDto userDto) {
+        ValidationResult result = new ValidationResult();
         if (Objects.nonNull(userDto.getEmail())) {
-            validateEmail(userDto.getEmail());
+            validateEmail(userDto.getEmail(), result);
         }
         if (Objects.nonNull(userDto.getFirstName())) {
-            validateFirstName(userDto.getFirstName());
+            validateFirstName(userDto.getFirstName(), result);
         }
         if (Objects.nonNull(userDto.getLastName())) {
-            validateLastName(userDto.getLastName());
+            validateLastName(userDto.getLastName(), result);
         }
         if (Objects.nonNull(userDto.getBirthdate())) {
-            validateBirthdate(userDto.getBirthdate());
+            validateBirthdate(userDto.getBirthdate(), result);
         }
         if (Objects.nonNull(userDto.getPhoneNumber())) {
-            validatePhoneNumber(userDto.getPhoneNumber());
+            validatePhoneNumber(userDto.getPhoneNumber(), result);
         }
+        return result;
+    }
 
-        if (!exception.isEmpty()) {
-            throw exception;
+    private static void throwIfInvalid(ValidationResult result) {
+        if (!result.isValid()) {
+            throw new UserValidationException(result.getMessages());
         }
     }
 
-    private void validateEmail(String email) {
+    /**
+     * Finds every email violation in a single pass over the string. The format check is a hand-written
+     * equivalent of {@code ^[A-Za-z0-9_-]+(\.[A-Za-z0-9_-]+){0,10}@[A-Za-z0-9-]+(\.[A-Za-z0-9-]+){0,10}(\.[A-Za-z]{2,})$}.
+     */
+    private void validateEmail(String email, ValidationResult result) {
         if (email.isEmpty()) {
-            exception.addMessage("User email cannot be empty.");
-        }
-        if (email.contains(" ")) {
-            exception.addMessage("User email cannot contain spaces.");
-        }
-        if (email.contains("_")
-                || email.contains("!")
-                || email.contains("#")
-                || email.contains("$")
-                || email.contains("%")
-                || email.contains("&")
-                || email.contains("'")
-                || email.contains("*")
-                || email.contains("+")
-                || email.contains("/")
-                || email.contains("=")
-                || email.contains("?")
-                || email.contains("`")
-                || email.contains("{")
-                || email.contains("|")
-                || email.contains("}")
-                || email.contains("~")
-                || email.contains("^")
-                || email.contains("-")
-                || email.contains("]")
-                || email.contains("[")) {
-            exception.addMessage("User email cannot contain special characters such as (){}`_/\\]['\".");
-        }
-        if (!email.matches(EMAIL_PATTERN)) {
-            exception.addMessage("User email format is invalid.");
+            result.addMessage("User email cannot be empty.");
+        }
+
+        boolean hasSpace = false;
+        boolean hasSpecialCharacter = false;
+        boolean formatValid = true;
+        boolean inDomain = false;
+        int labels = 0;
+        int labelLength = 0;
+        boolean labelAlphabetic = true;
+        for (int i = 0; i < email.length(); i++) {
+            char c = email.charAt(i);
+            if (c == ' ') {
+                hasSpace = true;
+            } else if (SPECIAL_CHARACTERS.indexOf(c) >= 0) {
+                hasSpecialCharacter = true;
+            }
+
+            if (c == '@' || c == '.') {
+                if (labelLength == 0 || (c == '@' && inDomain)) {
+                    formatValid = false;
+                }
+                labels++;
+                if (c == '@') {
+                    formatValid &= labels <= MAX_EMAIL_LABELS;
+                    inDomain = true;
+                    labels = 0;
+                }
+                labelLength = 0;
+                labelAlphabetic = true;
+            } else if (isAsciiLetterOrDigit(c) || c == '-' || (c == '_' && !inDomain)) {
+                labelLength++;
+                labelAlphabetic &= isAsciiLetter(c);
+            } else {
+                formatValid = false;
+            }
+        }
+        // The last domain label is the top-level domain: at least two letters, after at least one other label.
+        formatValid &= inDomain
+                && labels >= 1
+                && labels <= MAX_EMAIL_LABELS
+                && labelLength >= 2
+                && labelAlphabetic;
+
+        if (hasSpace) {
+            result.addMessage("User email cannot contain spaces.");
+        }
+        if (hasSpecialCharacter) {
+            result.addMessage("User email cannot contain special characters such as (){}`_/\\]['\".");
         }
+        if (!formatValid) {
+            result.addMessage("User email format is invalid.");
+        }
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isAsciiLetterOrDigit(char c) {
+        return isAsciiLetter(c) || (c >= '0' && c <= '9');
     }
 
-    private void validateFirstName(String firstName) {
+    private void validateFirstName(String firstName, ValidationResult result) {
         if (firstName.isEmpty()) {
-            exception.addMessage("User first name cannot be empty.");
+            result.addMessage("User first name cannot be empty.");
         }
         if (firstName.contains(" ")) {
-            exception.addMessage("User first name cannot contain spaces.");
+            result.addMessage("User first name cannot contain spaces.");
         }
     }
 
-    private void validateLastName(String lastName) {
+    private void validateLastName(String lastName, ValidationResult result) {
         if (lastName.isEmpty()) {
-            exception.addMessage("User last name cannot be empty.");
+            result.addMessage("User last name cannot be empty.");
         }
         if (lastName.contains(" ")) {
-            exception.addMessage("User last name cannot contain spaces.");
+            result.addMessage("User last name cannot contain spaces.");
         }
     }
 
-    private void validateBirthdate(LocalDate birthdate) {
+    private void validateBirthdate(LocalDate birthdate, ValidationResult result) {
         if (birthdate.isAfter(LocalDate.now())) {
-            exception.addMessage("Birthdate must be earlier than current date.");
+            result.addMessage("Birthdate must be earlier than current date.");
         } else if (birthdate.isAfter(LocalDate.now().minusYears(userValidAge))) {
-            exception.addMessage("The user must be of legal age.");
+            result.addMessage("The user must be of legal age.");
         }
     }
 
-    private void validatePhoneNumber(String phoneNumber) {
-        if (!phoneNumber.matches(PHONE_NUMBER_PATTERN)) {
-            exception.addMessage("User phone number format is invalid.");
+    private void validatePhoneNumber(String phoneNumber, ValidationResult result) {
+        if (!PHONE_NUMBER_PATTERN.matcher(phoneNumber).matches()) {
+            result.addMessage("User phone number format is invalid.");
         }
     }
 }
@@ -0,0 +1,28 @@
+package com.Maksym.Savienkov.userstestassignmentapp.validator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Violations found by a single validation call. A new instance is used for every call, so concurrent
+ * validations never share state, and the message list is only allocated once a violation is found.
+ */
+public class ValidationResult {
+    private List<String> messages;
+
+    public void addMessage(String message) {
+        if (Objects.isNull(messages)) {
+            messages = new ArrayList<>(4);
+        }
+        messages.add(message);
+    }
+
+    public boolean isValid() {
+        return Objects.isNull(messages);
+    }
+
+    public List<String> getMessages() {
+        return isValid() ? List.of() : messages;
+    }
+}
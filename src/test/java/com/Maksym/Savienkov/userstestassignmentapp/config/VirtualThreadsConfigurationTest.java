@@ -0,0 +1,48 @@
+package com.Maksym.Savienkov.userstestassignmentapp.config;
+
+import com.Maksym.Savienkov.userstestassignmentapp.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.env.Environment;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+@SpringBootTest
+@ActiveProfiles("virtual-threads")
+public class VirtualThreadsConfigurationTest {
+    @Autowired
+    private ApplicationContext context;
+    @Autowired
+    private Environment environment;
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void profile_shouldEnableVirtualThreads() {
+        assertEquals(Boolean.TRUE, environment.getProperty("spring.threads.virtual.enabled", Boolean.class));
+        assertNotNull(context.getBean(VirtualThreadsConfiguration.class));
+    }
+
+    @Test
+    void userService_shouldValidateBatchesOnApplicationTaskExecutor() {
+        assertSame(context.getBean("applicationTaskExecutor"), ReflectionTestUtils.getField(userService, "taskExecutor"));
+    }
+
+    @Test
+    void applicationTaskExecutor_shouldRunOnVirtualThreads_whenJava21OrLater() throws Exception {
+        assumeTrue(Runtime.version().feature() >= 21, "virtual threads need Java 21 or later");
+        AsyncTaskExecutor executor = context.getBean("applicationTaskExecutor", AsyncTaskExecutor.class);
+
+        Thread thread = CompletableFuture.supplyAsync(Thread::currentThread, executor).get();
+
+        assertEquals(Boolean.TRUE, Thread.class.getMethod("isVirtual").invoke(thread));
+    }
+}
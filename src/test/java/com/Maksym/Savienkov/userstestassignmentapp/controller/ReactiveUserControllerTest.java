@@ -0,0 +1,122 @@
+package com.Maksym.Savienkov.userstestassignmentapp.controller;
+
+import com.Maksym.Savienkov.userstestassignmentapp.dto.UserDto;
+import com.Maksym.Savienkov.userstestassignmentapp.dto.UserResponseDto;
+import com.Maksym.Savienkov.userstestassignmentapp.exception.InvalidRequestException;
+import com.Maksym.Savienkov.userstestassignmentapp.model.User;
+import com.Maksym.Savienkov.userstestassignmentapp.service.ReactiveUserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc(addFilters = false)
+public class ReactiveUserControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    @MockBean
+    private ReactiveUserService service;
+
+    @Test
+    void givenCreate_whenUserDataIsValid_thenStatus201AndReturnLocation() throws Exception {
+        when(service.create(createUserDto())).thenReturn(Mono.just(0));
+
+        MvcResult mvcResult = mockMvc.perform(
+                        MockMvcRequestBuilders.post("/api/reactive/users")
+                                .content(mapper.writeValueAsString(createUserDto()))
+                                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Location", "http://localhost/api/users/0"));
+    }
+
+    @Test
+    public void givenStreamByBirthdate_whenUsersMatch_thenStreamOneUserPerLine() throws Exception {
+        when(service.streamByBirthdate(LocalDate.of(1998, 1, 1), LocalDate.of(2006, 1, 1)))
+                .thenReturn(Flux.just(createValidUser(), createValidUser().toBuilder().id(1).build()));
+
+        MvcResult mvcResult = mockMvc.perform(
+                        MockMvcRequestBuilders.get("/api/reactive/users")
+                                .param("from", "1998-01-01")
+                                .param("to", "2006-01-01")
+                                .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Items, and the headers before them, are written to the response as they are emitted; wait for the
+        // stream to complete, then check what was written.
+        mvcResult.getAsyncResult(5_000);
+        assertEquals(200, mvcResult.getResponse().getStatus());
+        assertEquals(MediaType.APPLICATION_NDJSON_VALUE, mvcResult.getResponse().getContentType());
+        String[] lines = mvcResult.getResponse().getContentAsString().split("\n");
+
+        assertEquals(2, lines.length);
+        UserResponseDto firstUser = mapper.readValue(lines[0], UserResponseDto.class);
+        assertEquals(0, firstUser.getId());
+        assertEquals("http://localhost/api/users/0", firstUser.getRequiredLink("delete").getHref());
+        assertEquals(1, mapper.readValue(lines[1], UserResponseDto.class).getId());
+    }
+
+    @Test
+    public void givenStreamByBirthdate_whenFromIsAfterTo_thenStatus400() throws Exception {
+        when(service.streamByBirthdate(LocalDate.of(2006, 1, 1), LocalDate.of(1998, 1, 1)))
+                .thenReturn(Flux.error(new InvalidRequestException("Failed to get users. 'from' cannot be after 'to'.")));
+
+        MvcResult mvcResult = mockMvc.perform(
+                        MockMvcRequestBuilders.get("/api/reactive/users")
+                                .param("from", "2006-01-01")
+                                .param("to", "1998-01-01")
+                                .accept(MediaType.APPLICATION_NDJSON, MediaType.APPLICATION_JSON))
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors[0].message").value("Failed to get users. 'from' cannot be after 'to'."));
+    }
+
+    private static User createValidUser() {
+        return User.builder()
+                .id(0)
+                .email("email.1@gmail.com")
+                .firstName("Username1")
+                .lastName("Lastname1")
+                .birthdate(LocalDate.now().minusYears(26))
+                .address("Adders")
+                .phoneNumber("+340234212131")
+                .build();
+    }
+
+    private static UserDto createUserDto() {
+        return UserDto.builder()
+                .email("email.1@gmail.com")
+                .firstName("Username1")
+                .lastName("Lastname1")
+                .birthdate(LocalDate.now().minusYears(26))
+                .address("Adders")
+                .phoneNumber("+340234212131")
+                .build();
+    }
+}
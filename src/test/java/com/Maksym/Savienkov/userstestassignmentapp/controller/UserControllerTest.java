@@ -1,8 +1,15 @@
 package com.Maksym.Savienkov.userstestassignmentapp.controller;
 
+import com.Maksym.Savienkov.userstestassignmentapp.dto.UserBatchItemResultDto;
 import com.Maksym.Savienkov.userstestassignmentapp.dto.UserDto;
+import com.Maksym.Savienkov.userstestassignmentapp.dto.UserResponseDto;
+import com.Maksym.Savienkov.userstestassignmentapp.exception.ConflictException;
 import com.Maksym.Savienkov.userstestassignmentapp.exception.InvalidRequestException;
+import com.Maksym.Savienkov.userstestassignmentapp.exception.NotFoundException;
+import com.Maksym.Savienkov.userstestassignmentapp.model.BirthdateCursor;
 import com.Maksym.Savienkov.userstestassignmentapp.model.User;
+import com.Maksym.Savienkov.userstestassignmentapp.model.UserPage;
+import com.Maksym.Savienkov.userstestassignmentapp.model.UserQuery;
 import com.Maksym.Savienkov.userstestassignmentapp.service.UserService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
@@ -18,10 +25,14 @@ import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
 import static org.springframework.hateoas.server.reactive.WebFluxLinkBuilder.methodOn;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @SpringBootTest
@@ -40,11 +51,13 @@ public class UserControllerTest {
     public void givenGetByBirthdate_whenGetUsersByBirthdate_thenStatus200() throws Exception {
         when(service.getByBirthdate(
                         Mockito.any(LocalDate.class),
-                        Mockito.any(LocalDate.class)
+                        Mockito.any(LocalDate.class),
+                        Mockito.eq(100),
+                        Mockito.isNull()
                 ))
-                .thenReturn(List.of(createValidUser()));
+                .thenReturn(new UserPage(List.of(createValidUser()), null));
 
-        User userToReturn = createValidUser();
+        UserResponseDto userToReturn = createValidUserResponseDto();
         UserDto userDto = createUserDto();
         userToReturn.removeLinks()
                 .add(
@@ -72,11 +85,33 @@ public class UserControllerTest {
                 .andReturn();
     }
 
+    @Test
+    public void givenGetByBirthdate_whenLinksAreAdded_thenUsersFromServiceAreNotModified() throws Exception {
+        User storedUser = createValidUser();
+        when(service.getByBirthdate(
+                Mockito.any(LocalDate.class),
+                Mockito.any(LocalDate.class),
+                Mockito.anyInt(),
+                Mockito.any()
+        )).thenReturn(new UserPage(List.of(storedUser), null));
+
+        mockMvc.perform(
+                        MockMvcRequestBuilders.get("/api/users")
+                                .param("from", "1998-01-01")
+                                .param("to", "2006-01-01"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].links.length()").value(3));
+
+        assertEquals(createValidUser(), storedUser);
+    }
+
     @Test
     public void givenGetByBirthdate_whenFromIsAfterTo_thenStatus400() throws Exception {
         when(service.getByBirthdate(
                 Mockito.any(LocalDate.class),
-                Mockito.any(LocalDate.class)
+                Mockito.any(LocalDate.class),
+                Mockito.anyInt(),
+                Mockito.any()
         )).thenThrow(new InvalidRequestException("error message"));
 
         MvcResult mvcResult = mockMvc.perform(
@@ -90,6 +125,56 @@ public class UserControllerTest {
                 .andReturn();
     }
 
+    @Test
+    public void givenGetByBirthdate_whenMoreUsersThanLimit_thenReturnNextCursor() throws Exception {
+        BirthdateCursor next = new BirthdateCursor(LocalDate.of(2000, 1, 1), 0);
+        when(service.getByBirthdate(
+                LocalDate.of(1998, 1, 1),
+                LocalDate.of(2006, 1, 1),
+                1,
+                "cursor"
+        )).thenReturn(new UserPage(List.of(createValidUser()), next));
+
+        mockMvc.perform(
+                        MockMvcRequestBuilders.get("/api/users")
+                                .param("from", "1998-01-01")
+                                .param("to", "2006-01-01")
+                                .param("limit", "1")
+                                .param("cursor", "cursor")
+                                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.length()").value(1))
+                .andExpect(jsonPath("$.next").value(next.encode()));
+    }
+
+    @Test
+    public void givenGetByBirthdate_whenAcceptIsNdjson_thenStreamOneUserPerLine() throws Exception {
+        when(service.streamByBirthdate(LocalDate.of(1998, 1, 1), LocalDate.of(2006, 1, 1)))
+                .thenReturn(Stream.of(createValidUser(), createValidUser().toBuilder().id(1).build()));
+
+        MvcResult mvcResult = mockMvc.perform(
+                        MockMvcRequestBuilders.get("/api/users")
+                                .param("from", "1998-01-01")
+                                .param("to", "2006-01-01")
+                                .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String[] lines = mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn()
+                .getResponse()
+                .getContentAsString()
+                .split("\n");
+
+        assertEquals(2, lines.length);
+        UserResponseDto firstUser = mapper.readValue(lines[0], UserResponseDto.class);
+        assertEquals(0, firstUser.getId());
+        assertEquals("http://localhost/api/users/0", firstUser.getRequiredLink("delete").getHref());
+        assertEquals(1, mapper.readValue(lines[1], UserResponseDto.class).getId());
+    }
+
     @Test
     void givenCreate_whenUserDataIsValid_thenStatus201AndReturnLocation() throws Exception {
         when(service.create(createUserDto()))
@@ -113,8 +198,155 @@ public class UserControllerTest {
                 .andExpect(content().string(""));
     }
 
+    @Test
+    void givenGetByEmail_whenUserExists_thenReturnUserWithLinks() throws Exception {
+        when(service.getByEmail("email.1@gmail.com"))
+                .thenReturn(createValidUser());
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/users/by-email/email.1@gmail.com"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email").value("email.1@gmail.com"))
+                .andExpect(jsonPath("$._links.update.href").value("http://localhost/api/users/0"));
+    }
+
+    @Test
+    void givenGetByEmail_whenUserDoesNotExist_thenStatus404() throws Exception {
+        when(service.getByEmail("email.1@gmail.com"))
+                .thenThrow(new NotFoundException("error message"));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/users/by-email/email.1@gmail.com"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.errors[:1].message").value("error message"))
+                .andExpect(jsonPath("$.errors[:1].status").value(404));
+    }
+
+    @Test
+    void givenGetByPhoneNumber_thenReturnMatchingUsers() throws Exception {
+        when(service.getByPhoneNumber("+(380)96-342-43-54"))
+                .thenReturn(List.of(createValidUser()));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/users/by-phone")
+                        .param("phoneNumber", "+(380)96-342-43-54"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].id").value(0));
+    }
+
+    @Test
+    void givenSearch_thenReturnUsersInRankedOrder() throws Exception {
+        User second = createValidUser();
+        second.setId(1);
+        when(service.searchByName("user", 5))
+                .thenReturn(List.of(second, createValidUser()));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/users/search")
+                        .param("q", "user")
+                        .param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].id").value(1))
+                .andExpect(jsonPath("$.data[1].id").value(0));
+    }
+
+    @Test
+    void givenQuery_thenPassFiltersToService() throws Exception {
+        UserQuery query = UserQuery.builder()
+                .birthdateFrom(LocalDate.of(1990, 1, 1))
+                .birthdateTo(LocalDate.of(2000, 1, 1))
+                .birthMonths(Set.of(1, 2))
+                .emailDomains(Set.of("gmail.com"))
+                .hasPhoneNumber(true)
+                .build();
+        when(service.query(query, 100))
+                .thenReturn(List.of(createValidUser()));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/users/query")
+                        .param("birthdateFrom", "1990-01-01")
+                        .param("birthdateTo", "2000-01-01")
+                        .param("birthMonth", "1,2")
+                        .param("emailDomain", "gmail.com")
+                        .param("hasPhoneNumber", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].id").value(0));
+    }
+
+    @Test
+    void givenUpcomingBirthdays_whenDaysAreNotGiven_thenLookAWeekAhead() throws Exception {
+        when(service.getUpcomingBirthdays(LocalDate.of(2026, 12, 28), 7, 100))
+                .thenReturn(List.of(createValidUser()));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/users/birthdays")
+                        .param("from", "2026-12-28"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].id").value(0));
+    }
+
+    @Test
+    void givenCreate_whenEmailIsTaken_thenStatus409() throws Exception {
+        when(service.create(createUserDto()))
+                .thenThrow(new ConflictException("error message"));
+
+        mockMvc.perform(
+                        MockMvcRequestBuilders.post("/api/users")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(mapper.writeValueAsString(createUserDto())))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.errors[:1].message").value("error message"))
+                .andExpect(jsonPath("$.errors[:1].status").value(409));
+    }
+
+    @Test
+    void givenCreateAll_whenItemsAreSentAsNdjson_thenReturnPerItemResults() throws Exception {
+        UserDto invalidUserDto = createUserDto();
+        invalidUserDto.setFirstName("");
+        when(service.createAll(List.of(createUserDto(), invalidUserDto)))
+                .thenReturn(List.of(
+                        UserBatchItemResultDto.created(0, 1),
+                        UserBatchItemResultDto.rejected(1, List.of("User first name cannot be empty."))
+                ));
+
+        mockMvc.perform(
+                        MockMvcRequestBuilders.post("/api/users/batch")
+                                .contentType(MediaType.APPLICATION_NDJSON)
+                                .content(mapper.writeValueAsString(createUserDto()) + "\n"
+                                        + mapper.writeValueAsString(invalidUserDto) + "\n")
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].index").value(0))
+                .andExpect(jsonPath("$.data[0].id").value(1))
+                .andExpect(jsonPath("$.data[0].errors").doesNotExist())
+                .andExpect(jsonPath("$.data[1].id").doesNotExist())
+                .andExpect(jsonPath("$.data[1].errors[0]").value("User first name cannot be empty."));
+    }
+
+    @Test
+    void givenCreateAll_whenNdjsonExceedsMaxBatchSize_thenStatus400() throws Exception {
+        mockMvc.perform(
+                        MockMvcRequestBuilders.post("/api/users/batch")
+                                .contentType(MediaType.APPLICATION_NDJSON)
+                                .content("{}\n".repeat(UserService.MAX_BATCH_SIZE + 1))
+                )
+                .andExpect(status().isBadRequest());
+
+        verify(service, never()).createAll(any());
+    }
+
+    @Test
+    void givenCreateAll_whenItemsAreSentAsJsonArray_thenStatus200() throws Exception {
+        when(service.createAll(List.of(createUserDto())))
+                .thenReturn(List.of(UserBatchItemResultDto.created(0, 1)));
+
+        mockMvc.perform(
+                        MockMvcRequestBuilders.post("/api/users/batch")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("[" + mapper.writeValueAsString(createUserDto()) + "]")
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].id").value(1));
+    }
+
     @Test
     void givenUpdate_whenUserAlreadyExists_thenStatus200() throws Exception {
+        when(service.existsById(0)).thenReturn(true);
+
         mockMvc.perform(
                         MockMvcRequestBuilders.put("/api/users/0")
                                 .contentType(MediaType.APPLICATION_JSON)
@@ -158,6 +390,8 @@ public class UserControllerTest {
 
     @Test
     void givenPatch_whenUserExists_thenStatus200() throws Exception {
+        when(service.existsById(0)).thenReturn(true);
+
         mockMvc.perform(
                         MockMvcRequestBuilders.patch("/api/users/0")
                                 .contentType(MediaType.APPLICATION_JSON)
@@ -216,6 +450,18 @@ public class UserControllerTest {
                 .build();
     }
 
+    private static UserResponseDto createValidUserResponseDto() {
+        return UserResponseDto.builder()
+                .id(0)
+                .email("email.1@gmail.com")
+                .firstName("Username1")
+                .lastName("Lastname1")
+                .birthdate(LocalDate.now().minusYears(26))
+                .address("Adders")
+                .phoneNumber("+340234212131")
+                .build();
+    }
+
     private static UserDto createUserDto() {
         return UserDto.builder()
                 .email("email.1@gmail.com")
@@ -0,0 +1,61 @@
+package com.Maksym.Savienkov.userstestassignmentapp.logging;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class RateLimitedLoggerTest {
+    private Logger logger;
+    private ListAppender<ILoggingEvent> appender;
+
+    @BeforeEach
+    void setUp() {
+        logger = (Logger) LoggerFactory.getLogger(RateLimitedLoggerTest.class);
+        appender = new ListAppender<>();
+        appender.start();
+        logger.addAppender(appender);
+    }
+
+    @AfterEach
+    void tearDown() {
+        logger.detachAppender(appender);
+    }
+
+    @Test
+    void warn_shouldDropMessagesOverThePermitsOfEachCategory() {
+        RateLimitedLogger rateLimitedLogger = new RateLimitedLogger(logger, 2, Duration.ofHours(1));
+
+        for (int i = 0; i < 5; i++) {
+            rateLimitedLogger.warn("create", "Failed to create user {}", i);
+        }
+        rateLimitedLogger.warn("update", "Failed to update user {}", 0);
+
+        assertEquals(
+                List.of("Failed to create user 0", "Failed to create user 1", "Failed to update user 0"),
+                appender.list.stream().map(ILoggingEvent::getFormattedMessage).toList()
+        );
+    }
+
+    @Test
+    void warn_shouldReportDroppedMessages_whenNextWindowStarts() throws InterruptedException {
+        RateLimitedLogger rateLimitedLogger = new RateLimitedLogger(logger, 1, Duration.ofMillis(50));
+
+        for (int i = 0; i < 3; i++) {
+            rateLimitedLogger.warn("create", "Failed to create user {}", i);
+        }
+        Thread.sleep(100);
+        rateLimitedLogger.warn("create", "Failed to create user {}", 3);
+
+        assertEquals(2, appender.list.size());
+        assertEquals("Failed to create user 3 (2 similar messages dropped)", appender.list.get(1).getFormattedMessage());
+    }
+}
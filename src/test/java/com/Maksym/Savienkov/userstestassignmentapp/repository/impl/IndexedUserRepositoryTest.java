@@ -0,0 +1,467 @@
+package com.Maksym.Savienkov.userstestassignmentapp.repository.impl;
+
+import com.Maksym.Savienkov.userstestassignmentapp.exception.DuplicateEmailException;
+import com.Maksym.Savienkov.userstestassignmentapp.model.BirthdateCursor;
+import com.Maksym.Savienkov.userstestassignmentapp.model.User;
+import com.Maksym.Savienkov.userstestassignmentapp.model.UserQuery;
+import com.Maksym.Savienkov.userstestassignmentapp.repository.storage.ColumnarUserStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IndexedUserRepositoryTest {
+    private IndexedUserRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new IndexedUserRepository(new ColumnarUserStore());
+    }
+
+    @Test
+    void save_shouldAssignSequentialIds_whenUsersHaveNoId() {
+        assertEquals(0, repository.save(createUser("email.1@gmail.com")));
+        assertEquals(1, repository.save(createUser("email.2@gmail.com")));
+        assertEquals("email.2@gmail.com", repository.getByid(1).getEmail());
+    }
+
+    @Test
+    void save_shouldReplaceUser_whenIdIsSet() {
+        int id = repository.save(createUser("email.1@gmail.com"));
+        User updated = createUser("email.2@gmail.com");
+        updated.setId(id);
+
+        assertEquals(id, repository.save(updated));
+        assertEquals(1, repository.getAll().size());
+        assertEquals("email.2@gmail.com", repository.getByid(id).getEmail());
+    }
+
+    @Test
+    void save_shouldNotReuseExplicitlyAssignedIds() {
+        User user = createUser("email.1@gmail.com");
+        user.setId(5);
+        repository.save(user);
+
+        assertEquals(6, repository.save(createUser("email.2@gmail.com")));
+    }
+
+    @Test
+    void saveAll_shouldAssignIdsInOrderAndIndexEveryUser() {
+        repository.save(createUser("email.0@gmail.com", LocalDate.of(1970, 1, 1)));
+
+        List<Integer> ids = repository.saveAll(List.of(
+                createUser("email.1@gmail.com", LocalDate.of(1990, 1, 1)),
+                createUser("email.2@gmail.com", LocalDate.of(1990, 1, 2))
+        ));
+
+        assertEquals(List.of(1, 2), ids);
+        assertEquals(2, repository.getByBirthdate(LocalDate.of(1990, 1, 1), LocalDate.of(1990, 1, 2), null, 10).size());
+        assertEquals(3, repository.save(createUser("email.3@gmail.com")));
+    }
+
+    @Test
+    void save_shouldHandOutUniqueIds_whenCalledConcurrently() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            Set<Integer> ids = ConcurrentHashMap.newKeySet();
+            List<Future<Boolean>> futures = IntStream.range(0, 1000)
+                    .mapToObj(i -> executor.submit(() -> ids.add(repository.save(createUser("email." + i + "@gmail.com")))))
+                    .toList();
+            for (Future<Boolean> future : futures) {
+                future.get();
+            }
+
+            assertEquals(1000, ids.size());
+            assertEquals(1000, repository.getAll().size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void getByBirthdate_shouldReturnUsersBornWithinInclusiveRange_orderedByBirthdate() {
+        int oldest = repository.save(createUser("email.1@gmail.com", LocalDate.of(1976, 5, 1)));
+        int youngest = repository.save(createUser("email.2@gmail.com", LocalDate.of(2006, 1, 1)));
+        int middle = repository.save(createUser("email.3@gmail.com", LocalDate.of(1998, 1, 1)));
+        repository.save(createUser("email.4@gmail.com", LocalDate.of(1965, 3, 12)));
+        repository.save(createUser("email.5@gmail.com", LocalDate.of(2006, 1, 2)));
+
+        List<Integer> ids = repository.getByBirthdate(LocalDate.of(1976, 5, 1), LocalDate.of(2006, 1, 1), null, 10)
+                .stream()
+                .map(User::getId)
+                .toList();
+
+        assertEquals(List.of(oldest, middle, youngest), ids);
+    }
+
+    @Test
+    void getByBirthdate_shouldFollowUpdatesAndDeletes() {
+        int moved = repository.save(createUser("email.1@gmail.com", LocalDate.of(1990, 1, 1)));
+        int deleted = repository.save(createUser("email.2@gmail.com", LocalDate.of(1990, 1, 2)));
+        User update = createUser("email.1@gmail.com", LocalDate.of(1980, 1, 1));
+        update.setId(moved);
+
+        repository.save(update);
+        repository.deleteById(deleted);
+
+        assertTrue(repository.getByBirthdate(LocalDate.of(1990, 1, 1), LocalDate.of(1990, 12, 31), null, 10).isEmpty());
+        assertEquals(List.of(update), repository.getByBirthdate(LocalDate.of(1980, 1, 1), LocalDate.of(1980, 1, 1), null, 10));
+    }
+
+    @Test
+    void getByBirthdate_shouldContinueStrictlyAfterCursor_andRespectLimit() {
+        LocalDate birthdate = LocalDate.of(1990, 1, 1);
+        int first = repository.save(createUser("email.1@gmail.com", birthdate));
+        int second = repository.save(createUser("email.2@gmail.com", birthdate));
+        int third = repository.save(createUser("email.3@gmail.com", birthdate.plusDays(1)));
+
+        List<User> firstPage = repository.getByBirthdate(birthdate, birthdate.plusDays(1), null, 2);
+        List<User> secondPage = repository.getByBirthdate(
+                birthdate, birthdate.plusDays(1), BirthdateCursor.of(firstPage.get(1)), 2
+        );
+
+        assertEquals(List.of(first, second), firstPage.stream().map(User::getId).toList());
+        assertEquals(List.of(third), secondPage.stream().map(User::getId).toList());
+    }
+
+    @Test
+    void deleteById_shouldRemoveUser() {
+        int id = repository.save(createUser("email.1@gmail.com"));
+
+        repository.deleteById(id);
+
+        assertNull(repository.getByid(id));
+        assertTrue(repository.getAll().isEmpty());
+    }
+
+    @Test
+    void save_shouldRejectTakenEmail_ignoringCase_butKeepOwnEmailOnUpdate() {
+        int id = repository.save(createUser("Email.1@gmail.com"));
+
+        assertThrows(DuplicateEmailException.class, () -> repository.save(createUser("email.1@GMAIL.com")));
+
+        User updated = createUser("EMAIL.1@gmail.com");
+        updated.setId(id);
+        assertEquals(id, repository.save(updated));
+        assertEquals(1, repository.getAll().size());
+    }
+
+    @Test
+    void save_shouldReleaseEmail_whenUserChangesItOrIsDeleted() {
+        int changed = repository.save(createUser("email.1@gmail.com"));
+        int deleted = repository.save(createUser("email.2@gmail.com"));
+        User updated = createUser("email.3@gmail.com");
+        updated.setId(changed);
+        repository.save(updated);
+        repository.deleteById(deleted);
+
+        assertDoesNotThrow(() -> repository.save(createUser("email.1@gmail.com")));
+        assertDoesNotThrow(() -> repository.save(createUser("email.2@gmail.com")));
+        assertThrows(DuplicateEmailException.class, () -> repository.save(createUser("email.3@gmail.com")));
+    }
+
+    @Test
+    void saveAll_shouldSkipUsersWithTakenEmails() {
+        repository.save(createUser("email.0@gmail.com"));
+
+        List<Integer> ids = repository.saveAll(List.of(
+                createUser("email.1@gmail.com"),
+                createUser("EMAIL.0@gmail.com"),
+                createUser("email.1@gmail.com")
+        ));
+
+        assertEquals(Arrays.asList(1, null, null), ids);
+        assertEquals(2, repository.getAll().size());
+    }
+
+    @Test
+    void saveAll_shouldReleaseEmailsOfUnstoredUsers_whenStoreFails() {
+        IndexedUserRepository failing = new IndexedUserRepository(new ColumnarUserStore() {
+            @Override
+            public void put(User user, BiConsumer<User, User> onChange) {
+                if (user.getId() == 1) {
+                    throw new IllegalStateException("Disk is full.");
+                }
+                super.put(user, onChange);
+            }
+        });
+
+        assertThrows(IllegalStateException.class, () -> failing.saveAll(List.of(
+                createUser("email.0@gmail.com"),
+                createUser("email.1@gmail.com"),
+                createUser("email.2@gmail.com")
+        )));
+
+        assertEquals(0, failing.getByEmail("email.0@gmail.com").getId());
+        assertEquals(3, failing.save(createUser("email.1@gmail.com")));
+        assertEquals(4, failing.save(createUser("email.2@gmail.com")));
+        assertThrows(DuplicateEmailException.class, () -> failing.save(createUser("email.0@gmail.com")));
+    }
+
+    @Test
+    void getByEmail_shouldFindUserIgnoringCase_andFollowUpdates() {
+        int id = repository.save(createUser("Email.1@gmail.com"));
+
+        assertEquals(id, repository.getByEmail("email.1@GMAIL.com").getId());
+
+        User updated = createUser("email.2@gmail.com");
+        updated.setId(id);
+        repository.save(updated);
+        assertNull(repository.getByEmail("email.1@gmail.com"));
+        assertEquals(id, repository.getByEmail("email.2@gmail.com").getId());
+    }
+
+    @Test
+    void getByPhoneNumber_shouldMatchNormalizedDigits() {
+        User first = createUser("email.1@gmail.com");
+        first.setPhoneNumber("+(380)96-342-43-54");
+        User second = createUser("email.2@gmail.com");
+        second.setPhoneNumber("380963424354");
+        User other = createUser("email.3@gmail.com");
+        other.setPhoneNumber("+340234212131");
+        int firstId = repository.save(first);
+        int secondId = repository.save(second);
+        repository.save(other);
+
+        assertEquals(List.of(firstId, secondId),
+                repository.getByPhoneNumber("380 96 342 43 54").stream().map(User::getId).toList());
+
+        repository.deleteById(firstId);
+        assertEquals(List.of(secondId),
+                repository.getByPhoneNumber("+(380)96-342-43-54").stream().map(User::getId).toList());
+        assertTrue(repository.getByPhoneNumber("+111").isEmpty());
+    }
+
+    @Test
+    void searchByName_shouldFollowUpdatesAndDeletes() {
+        User user = createUser("email.1@gmail.com");
+        user.setFirstName("Maksym");
+        int id = repository.save(user);
+        int deleted = repository.save(createUser("email.2@gmail.com"));
+
+        assertEquals(List.of(id), repository.searchByName("maksim", 10).stream().map(User::getId).toList());
+
+        User renamed = createUser("email.1@gmail.com");
+        renamed.setId(id);
+        renamed.setFirstName("Olena");
+        repository.save(renamed);
+        repository.deleteById(deleted);
+
+        assertTrue(repository.searchByName("maksym", 10).isEmpty());
+        assertEquals(List.of(id), repository.searchByName("ole last", 10).stream().map(User::getId).toList());
+    }
+
+    @Test
+    void query_shouldUseMostSelectiveIndex_andApplyRemainingFilters() {
+        for (int i = 0; i < 100; i++) {
+            User user = createUser("email." + i + (i % 10 == 0 ? "@example.org" : "@gmail.com"),
+                    LocalDate.of(1980 + i % 20, 1 + i % 12, 1));
+            user.setAddress(i % 2 == 0 ? "Kyiv, Khreshchatyk " + i : null);
+            user.setPhoneNumber("+340234212131");
+            repository.save(user);
+        }
+        UserQuery query = UserQuery.builder()
+                .birthdateFrom(LocalDate.of(1980, 1, 1))
+                .birthdateTo(LocalDate.of(1999, 12, 31))
+                .emailDomains(Set.of("EXAMPLE.org"))
+                .hasPhoneNumber(true)
+                .hasAddress(true)
+                .addressContains("khreshchatyk 2")
+                .build();
+
+        assertEquals("bitmap", repository.plan(query).getIndex());
+        assertEquals(List.of(20), repository.query(query, 10).stream().map(User::getId).toList());
+
+        UserQuery narrowRange = UserQuery.builder()
+                .birthdateFrom(LocalDate.of(1985, 1, 1))
+                .birthdateTo(LocalDate.of(1985, 3, 31))
+                .hasAddress(false)
+                .build();
+        assertEquals("birthdate", repository.plan(narrowRange).getIndex());
+        assertEquals(List.of(25, 85), repository.query(narrowRange, 10).stream().map(User::getId).toList());
+    }
+
+    @Test
+    void query_shouldCombineBitmapFiltersWithAndAcrossFieldsAndOrWithinField() {
+        for (int i = 0; i < 24; i++) {
+            User user = createUser("email." + i + (i < 12 ? "@gmail.com" : "@example.org"), LocalDate.of(1990 + i % 2, 1 + i % 12, 1));
+            user.setAddress(i % 3 == 0 ? null : "Lviv");
+            repository.save(user);
+        }
+        UserQuery query = UserQuery.builder()
+                .birthMonths(Set.of(1, 12))
+                .birthYears(Set.of(1990))
+                .hasAddress(false)
+                .build();
+
+        assertEquals("bitmap", repository.plan(query).getIndex());
+        assertEquals(List.of(0, 12), repository.query(query, 10).stream().map(User::getId).toList());
+
+        UserQuery byDomains = UserQuery.builder()
+                .emailDomains(Set.of("gmail.com", "example.org"))
+                .birthMonths(Set.of(2))
+                .build();
+        assertEquals(List.of(1, 13), repository.query(byDomains, 10).stream().map(User::getId).toList());
+    }
+
+    @Test
+    void getUpcomingBirthdays_shouldWrapAroundYearEnd_inCalendarOrder() {
+        int newYear = repository.save(createUser("email.1@gmail.com", LocalDate.of(1990, 1, 2)));
+        int newYearsEve = repository.save(createUser("email.2@gmail.com", LocalDate.of(2001, 12, 31)));
+        int christmas = repository.save(createUser("email.3@gmail.com", LocalDate.of(1985, 12, 25)));
+        repository.save(createUser("email.4@gmail.com", LocalDate.of(1985, 1, 10)));
+        repository.save(createUser("email.5@gmail.com", LocalDate.of(1985, 12, 27)));
+
+        assertEquals(List.of(newYearsEve, newYear),
+                repository.getUpcomingBirthdays(LocalDate.of(2026, 12, 28), 7, 10).stream().map(User::getId).toList());
+        assertEquals(List.of(christmas),
+                repository.getUpcomingBirthdays(LocalDate.of(2026, 12, 25), 7, 1).stream().map(User::getId).toList());
+    }
+
+    @Test
+    void getUpcomingBirthdays_shouldCelebrateLeapDayOnFebruary28InCommonYears() {
+        int leapDay = repository.save(createUser("email.1@gmail.com", LocalDate.of(2000, 2, 29)));
+        int march = repository.save(createUser("email.2@gmail.com", LocalDate.of(1999, 3, 1)));
+
+        assertEquals(List.of(leapDay),
+                repository.getUpcomingBirthdays(LocalDate.of(2027, 2, 28), 1, 10).stream().map(User::getId).toList());
+        assertEquals(List.of(leapDay, march),
+                repository.getUpcomingBirthdays(LocalDate.of(2028, 2, 28), 3, 10).stream().map(User::getId).toList());
+        assertEquals(List.of(march),
+                repository.getUpcomingBirthdays(LocalDate.of(2028, 3, 1), 7, 10).stream().map(User::getId).toList());
+    }
+
+    @Test
+    void getUpcomingBirthdays_shouldStopReading_onceLimitIsReached() {
+        AtomicInteger reads = new AtomicInteger();
+        IndexedUserRepository counting = new IndexedUserRepository(new ColumnarUserStore() {
+            @Override
+            public User get(int id) {
+                reads.incrementAndGet();
+                return super.get(id);
+            }
+        });
+        for (int day = 0; day < 365; day++) {
+            counting.save(createUser("email." + day + "@gmail.com", LocalDate.of(1990, 1, 1).plusDays(day)));
+        }
+        reads.set(0);
+
+        List<User> users = counting.getUpcomingBirthdays(LocalDate.of(2026, 12, 30), 366, 3);
+
+        assertEquals(List.of(LocalDate.of(1990, 12, 30), LocalDate.of(1990, 12, 31), LocalDate.of(1990, 1, 1)),
+                users.stream().map(User::getBirthdate).toList());
+        assertEquals(3, reads.get());
+    }
+
+    @Test
+    void getUpcomingBirthdays_shouldReturnUsersOnce_whenWindowSeesFirstDayAgain() {
+        int first = repository.save(createUser("email.1@gmail.com", LocalDate.of(1990, 3, 1)));
+        int second = repository.save(createUser("email.2@gmail.com", LocalDate.of(1991, 3, 1)));
+        int last = repository.save(createUser("email.3@gmail.com", LocalDate.of(1992, 2, 28)));
+
+        assertEquals(List.of(first, second, last),
+                repository.getUpcomingBirthdays(LocalDate.of(2026, 3, 1), 366, 10).stream().map(User::getId).toList());
+    }
+
+    @Test
+    void save_shouldLetOnlyOneWriterClaimEmail_whenCalledConcurrently() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> futures = IntStream.range(0, 64)
+                    .mapToObj(i -> executor.submit(() -> {
+                        try {
+                            repository.save(createUser("email.1@gmail.com"));
+                            return true;
+                        } catch (DuplicateEmailException e) {
+                            return false;
+                        }
+                    }))
+                    .toList();
+            int saved = 0;
+            for (Future<Boolean> future : futures) {
+                saved += future.get() ? 1 : 0;
+            }
+
+            assertEquals(1, saved);
+            assertEquals(1, repository.getAll().size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void bindTo_shouldPublishRepositoryAndIndexSizes() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        repository.bindTo(registry);
+        repository.save(createUser("email.1@gmail.com"));
+        repository.save(createUser("email.2@yahoo.com"));
+        repository.deleteById(0);
+
+        assertEquals(1, registry.get("user.repository.size").gauge().value());
+        assertEquals(1, registry.get("user.index.size").tag("index", "email").gauge().value());
+        assertEquals(2, registry.get("user.index.size").tag("index", "email_domain").gauge().value());
+        assertEquals(1, registry.get("user.index.entries").tag("index", "birthdate").gauge().value());
+    }
+
+    @Test
+    void constructor_shouldRebuildIndexes_fromFilledStore() {
+        ColumnarUserStore store = new ColumnarUserStore();
+        for (int id = 0; id < 1000; id++) {
+            User user = createUser("email." + id + "@gmail.com");
+            user.setId(id * 2);
+            store.put(user, (previous, current) -> { });
+        }
+
+        IndexedUserRepository rebuilt = new IndexedUserRepository(store);
+        rebuilt.startIndexRebuild();
+
+        assertEquals("email.5@gmail.com", rebuilt.getByid(10).getEmail());
+        assertEquals(10, rebuilt.getByEmail("email.5@gmail.com").getId());
+        assertEquals(1000, rebuilt.searchByName("username1", 2000).size());
+        assertEquals(1999, rebuilt.save(createUser("email.new@gmail.com")));
+        assertThrows(DuplicateEmailException.class, () -> rebuilt.save(createUser("email.999@gmail.com")));
+    }
+
+    @Test
+    void stopIndexRebuild_shouldFailWaitingReads_whenRebuildIsInterrupted() {
+        ColumnarUserStore store = new ColumnarUserStore();
+        for (int id = 0; id < 200_000; id++) {
+            User user = createUser("email." + id + "@gmail.com");
+            user.setId(id);
+            store.put(user, (previous, current) -> { });
+        }
+        IndexedUserRepository rebuilt = new IndexedUserRepository(store);
+
+        rebuilt.startIndexRebuild();
+        rebuilt.stopIndexRebuild();
+
+        assertThrows(CancellationException.class, rebuilt::awaitIndexes);
+    }
+
+    private static User createUser(String email) {
+        return createUser(email, LocalDate.now().minusYears(26));
+    }
+
+    private static User createUser(String email, LocalDate birthdate) {
+        return User.builder()
+                .email(email)
+                .firstName("Username1")
+                .lastName("Lastname1")
+                .birthdate(birthdate)
+                .build();
+    }
+}
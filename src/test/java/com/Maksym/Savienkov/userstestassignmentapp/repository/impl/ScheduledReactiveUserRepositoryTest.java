@@ -0,0 +1,64 @@
+package com.Maksym.Savienkov.userstestassignmentapp.repository.impl;
+
+import com.Maksym.Savienkov.userstestassignmentapp.model.User;
+import com.Maksym.Savienkov.userstestassignmentapp.repository.storage.ColumnarUserStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ScheduledReactiveUserRepositoryTest {
+    private IndexedUserRepository indexed;
+    private ScheduledReactiveUserRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        ColumnarUserStore store = new ColumnarUserStore();
+        for (int id = 0; id < 10; id++) {
+            User user = User.builder()
+                    .id(id)
+                    .email("email." + id + "@gmail.com")
+                    .firstName("Username1")
+                    .lastName("Lastname1")
+                    .birthdate(LocalDate.of(2000, 1, 1).plusDays(id))
+                    .build();
+            store.put(user, (previous, current) -> { });
+        }
+        // The rebuild is only started by the tests, so subscriptions happen while the indexes are not ready.
+        indexed = new IndexedUserRepository(store);
+        repository = new ScheduledReactiveUserRepository(indexed);
+    }
+
+    @Test
+    @Timeout(value = 5, threadMode = Timeout.ThreadMode.SEPARATE_THREAD)
+    void streamByBirthdate_shouldNotBlockSubscriber_whenIndexesAreBeingRebuilt() throws Exception {
+        CompletableFuture<List<User>> users = repository
+                .streamByBirthdate(LocalDate.of(2000, 1, 1), LocalDate.of(2000, 1, 5), null)
+                .collectList()
+                .toFuture();
+
+        assertFalse(users.isDone());
+
+        indexed.startIndexRebuild();
+
+        assertEquals(List.of(0, 1, 2, 3, 4), users.get(5, TimeUnit.SECONDS).stream().map(User::getId).toList());
+    }
+
+    @Test
+    @Timeout(value = 5, threadMode = Timeout.ThreadMode.SEPARATE_THREAD)
+    void getById_shouldEmitUser_onceIndexesAreRebuilt() throws Exception {
+        CompletableFuture<User> user = repository.getById(3).toFuture();
+
+        assertFalse(user.isDone());
+
+        indexed.startIndexRebuild();
+
+        assertEquals("email.3@gmail.com", user.get(5, TimeUnit.SECONDS).getEmail());
+    }
+}
@@ -0,0 +1,64 @@
+package com.Maksym.Savienkov.userstestassignmentapp.repository.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NameIndexTest {
+    private NameIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new NameIndex();
+        index.replace(1, Set.of(), NameIndex.tokenize("John", "Smith"));
+        index.replace(2, Set.of(), NameIndex.tokenize("Johnny", "Smithson"));
+        index.replace(3, Set.of(), NameIndex.tokenize("Jon", "Smyth"));
+        index.replace(4, Set.of(), NameIndex.tokenize("Mary-Jane", "Watson"));
+    }
+
+    @Test
+    void search_shouldRankExactBeforePrefixBeforeTypo() {
+        assertEquals(List.of(1, 2, 3), index.search("john", 10));
+    }
+
+    @Test
+    void search_shouldRequireEveryQueryWord() {
+        assertEquals(List.of(3, 1), index.search("jon smith", 10));
+        assertEquals(List.of(4), index.search("JANE wat", 10));
+        assertTrue(index.search("john watson", 10).isEmpty());
+    }
+
+    @Test
+    void search_shouldRespectLimit() {
+        assertEquals(List.of(1), index.search("smith", 1));
+    }
+
+    @Test
+    void search_shouldForgetReplacedNames() {
+        index.replace(1, NameIndex.tokenize("John", "Smith"), NameIndex.tokenize("Peter", "Smith"));
+
+        assertEquals(List.of(2, 3), index.search("john", 10));
+        assertEquals(List.of(1), index.search("petr", 10));
+    }
+
+    @Test
+    void search_shouldMatchTranspositions_atAnyPosition() {
+        index.replace(5, Set.of(), NameIndex.tokenize("Maria", "Lopez"));
+
+        assertEquals(List.of(1), index.search("smtih", 10));
+        assertEquals(List.of(1), index.search("msith", 10));
+        assertEquals(List.of(5), index.search("maira", 10));
+        assertEquals(List.of(5), index.search("amria", 10));
+    }
+
+    @Test
+    void editDistance_shouldCountTranspositionAsOneEdit() {
+        assertEquals(1, NameIndex.editDistance("jonh", "john", 2));
+        assertEquals(2, NameIndex.editDistance("smith", "smyht", 2));
+        assertEquals(3, NameIndex.editDistance("smith", "watson", 2));
+    }
+}
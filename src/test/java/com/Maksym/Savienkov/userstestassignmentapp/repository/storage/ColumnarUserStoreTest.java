@@ -0,0 +1,204 @@
+package com.Maksym.Savienkov.userstestassignmentapp.repository.storage;
+
+import com.Maksym.Savienkov.userstestassignmentapp.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ColumnarUserStoreTest {
+    private ColumnarUserStore store;
+    private List<User[]> changes;
+
+    @BeforeEach
+    void setUp() {
+        store = new ColumnarUserStore();
+        changes = new ArrayList<>();
+    }
+
+    @Test
+    void get_shouldMaterializeStoredUser_includingNullAndNonAsciiFields() {
+        User user = User.builder()
+                .id(3)
+                .email("email.1@gmail.com")
+                .firstName("Максим")
+                .lastName("Lastname1")
+                .birthdate(LocalDate.of(1998, 2, 28))
+                .build();
+
+        store.put(user, this::recordChange);
+
+        assertEquals(user, store.get(3));
+        assertNotSame(user, store.get(3));
+        assertNull(store.get(2));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void put_shouldReportPreviousUser_whenRowIsOverwritten() {
+        User first = createUser(5, "email.1@gmail.com");
+        User second = createUser(5, "email.2@gmail.com");
+
+        store.put(first, this::recordChange);
+        store.put(second, this::recordChange);
+
+        assertEquals(2, changes.size());
+        assertNull(changes.get(0)[0]);
+        assertEquals(first, changes.get(1)[0]);
+        assertEquals(second, store.get(5));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void remove_shouldDeleteRowAndReportIt() {
+        User user = createUser(1, "email.1@gmail.com");
+        store.put(user, this::recordChange);
+
+        store.remove(1, this::recordChange);
+        store.remove(1, this::recordChange);
+
+        assertNull(store.get(1));
+        assertEquals(0, store.size());
+        assertEquals(2, changes.size());
+        assertEquals(user, changes.get(1)[0]);
+        assertNull(changes.get(1)[1]);
+    }
+
+    @Test
+    void put_shouldUndoWrite_whenChangeCallbackFails() {
+        User first = createUser(5, "email.1@gmail.com");
+        store.put(first, this::recordChange);
+        BiConsumer<User, User> failing = (previous, current) -> {
+            throw new IllegalStateException("Log append failed.");
+        };
+
+        assertThrows(IllegalStateException.class, () -> store.put(createUser(5, "email.2@gmail.com"), failing));
+        assertThrows(IllegalStateException.class, () -> store.put(createUser(6, "email.3@gmail.com"), failing));
+        assertThrows(IllegalStateException.class, () -> store.remove(5, failing));
+
+        assertEquals(first, store.get(5));
+        assertNull(store.get(6));
+        assertEquals(1, store.size());
+        assertArrayEquals(new int[]{5}, store.ids().toArray());
+    }
+
+    @Test
+    void ids_shouldListStoredIdsInOrder_acrossSparseChunks() {
+        store.put(createUser(1_000_000, "email.3@gmail.com"), this::recordChange);
+        store.put(createUser(70_000, "email.2@gmail.com"), this::recordChange);
+        store.put(createUser(0, "email.1@gmail.com"), this::recordChange);
+
+        assertArrayEquals(new int[]{0, 70_000, 1_000_000}, store.ids().toArray());
+        assertEquals("email.3@gmail.com", store.get(1_000_000).getEmail());
+    }
+
+    @Test
+    void put_shouldKeepEveryString_whenStringPagesFillUp() {
+        String address = "a".repeat(1000);
+        for (int id = 0; id < 3000; id++) {
+            User user = createUser(id, "email." + id + "@gmail.com");
+            user.setAddress(address + id);
+            store.put(user, this::recordChange);
+        }
+
+        assertEquals("email.0@gmail.com", store.get(0).getEmail());
+        assertEquals(address + 2999, store.get(2999).getAddress());
+    }
+
+    @Test
+    void put_shouldReuseStrings_whenSameUserIsSavedRepeatedly() {
+        User user = createUser(7, "email.7@gmail.com");
+        user.setAddress("a".repeat(1000));
+        store.put(user, this::recordChange);
+        int pages = store.stringPages();
+
+        for (int i = 0; i < 5000; i++) {
+            store.put(user, this::recordChange);
+        }
+
+        assertEquals(pages, store.stringPages());
+        assertEquals(user, store.get(7));
+    }
+
+    @Test
+    void put_shouldDropEmptiedStringPages_whenUsersAreOverwritten() {
+        String address = "a".repeat(1000);
+        for (int round = 0; round < 50; round++) {
+            for (int id = 0; id < 1000; id++) {
+                User user = createUser(id, "email." + id + "@gmail.com");
+                user.setAddress(address + round);
+                store.put(user, this::recordChange);
+            }
+        }
+
+        assertTrue(store.stringPages() <= 5, "pages: " + store.stringPages());
+        assertEquals(address + 49, store.get(999).getAddress());
+    }
+
+    @Test
+    void put_shouldCompactSparseStringPages_whenMostStringsAreReplaced() {
+        store = new ColumnarUserStore(Runnable::run);
+        fillAndReplaceMostAddresses();
+
+        assertTrue(store.stringPages() <= 6, "pages: " + store.stringPages());
+        assertEquals("a".repeat(1000) + 8, store.get(8).getAddress());
+        assertEquals("short 9", store.get(9).getAddress());
+        assertEquals("email.19999@gmail.com", store.get(19_999).getEmail());
+    }
+
+    @Test
+    void put_shouldLeaveCompactionToTheWorker() {
+        List<Runnable> scheduled = new ArrayList<>();
+        store = new ColumnarUserStore(scheduled::add);
+        fillAndReplaceMostAddresses();
+
+        assertEquals(1, scheduled.size());
+        int pages = store.stringPages();
+        assertTrue(pages > 6, "pages: " + pages);
+
+        scheduled.get(0).run();
+
+        assertTrue(store.stringPages() <= 6, "pages: " + store.stringPages());
+        assertEquals("short 9", store.get(9).getAddress());
+    }
+
+    /**
+     * Writes 20K users with long addresses, then gives all but every eighth user a short one, so no page empties
+     * on its own and most of the heap is garbage.
+     */
+    private void fillAndReplaceMostAddresses() {
+        String address = "a".repeat(1000);
+        for (int id = 0; id < 20_000; id++) {
+            User user = createUser(id, "email." + id + "@gmail.com");
+            user.setAddress(address + id);
+            store.put(user, this::recordChange);
+        }
+        for (int id = 0; id < 20_000; id++) {
+            if (id % 8 != 0) {
+                User user = createUser(id, "email." + id + "@gmail.com");
+                user.setAddress("short " + id);
+                store.put(user, this::recordChange);
+            }
+        }
+    }
+
+    private void recordChange(User previous, User current) {
+        changes.add(new User[]{previous, current});
+    }
+
+    private static User createUser(int id, String email) {
+        return User.builder()
+                .id(id)
+                .email(email)
+                .firstName("Username1")
+                .lastName("Lastname1")
+                .birthdate(LocalDate.now().minusYears(26))
+                .phoneNumber("+340234212131")
+                .build();
+    }
+}
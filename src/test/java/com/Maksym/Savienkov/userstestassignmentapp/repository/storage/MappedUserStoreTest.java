@@ -0,0 +1,156 @@
+package com.Maksym.Savienkov.userstestassignmentapp.repository.storage;
+
+import com.Maksym.Savienkov.userstestassignmentapp.model.User;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MappedUserStoreTest {
+    private static final BiConsumer<User, User> NO_OP = (previous, current) -> { };
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void get_shouldReadUsersBack_afterStoreIsReopened() throws Exception {
+        User kept = createUser(0, "email.1@gmail.com");
+        kept.setFirstName("Максим");
+        User updated = createUser(70_000, "email.2@gmail.com");
+        try (MappedUserStore store = new MappedUserStore(directory)) {
+            store.put(kept, NO_OP);
+            store.put(createUser(1, "email.3@gmail.com"), NO_OP);
+            store.put(createUser(70_000, "email.old@gmail.com"), NO_OP);
+            store.put(updated, NO_OP);
+            store.remove(1, NO_OP);
+        }
+
+        try (MappedUserStore store = new MappedUserStore(directory)) {
+            assertEquals(kept, store.get(0));
+            assertNull(store.get(1));
+            assertEquals(updated, store.get(70_000));
+            assertArrayEquals(new int[]{0, 70_000}, store.ids().toArray());
+            assertEquals(2, store.size());
+
+            store.put(createUser(2, "email.4@gmail.com"), NO_OP);
+            assertEquals("email.4@gmail.com", store.get(2).getEmail());
+            assertEquals(kept, store.get(0));
+        }
+    }
+
+    @Test
+    void put_shouldReportPreviousUser_whenRecordIsOverwritten() throws Exception {
+        User first = createUser(5, "email.1@gmail.com");
+        User[] reported = new User[2];
+        try (MappedUserStore store = new MappedUserStore(directory)) {
+            store.put(first, NO_OP);
+            store.put(createUser(5, "email.2@gmail.com"), (previous, current) -> {
+                reported[0] = previous;
+                reported[1] = current;
+            });
+        }
+
+        assertEquals(first, reported[0]);
+        assertEquals("email.2@gmail.com", reported[1].getEmail());
+    }
+
+    @Test
+    void get_shouldReturnPreviousVersion_whenLatestRecordIsTorn() throws Exception {
+        User first = createUser(0, "email.1@gmail.com");
+        try (MappedUserStore store = new MappedUserStore(directory)) {
+            store.put(first, NO_OP);
+            store.put(createUser(0, "email.2@gmail.com"), NO_OP);
+        }
+        // The second version went to the second slot of the record; flip a byte of its birthdate.
+        corrupt(directory.resolve("users.records"), 56 + 12);
+
+        try (MappedUserStore store = new MappedUserStore(directory)) {
+            assertEquals(first, store.get(0));
+            store.put(createUser(0, "email.3@gmail.com"), NO_OP);
+            assertEquals("email.3@gmail.com", store.get(0).getEmail());
+        }
+    }
+
+    @Test
+    void constructor_shouldDropVersionsWithTornStrings_afterUncleanShutdown() throws Exception {
+        User first = createUser(0, "email.1@gmail.com");
+        try (MappedUserStore store = new MappedUserStore(directory)) {
+            store.put(first, NO_OP);
+            store.put(createUser(0, "email.2@gmail.com"), NO_OP);
+            store.put(createUser(1, "email.3@gmail.com"), NO_OP);
+        }
+        Path strings = directory.resolve("users.strings");
+        corrupt(strings, indexOf(strings, "email.2@gmail.com"));
+        corrupt(strings, indexOf(strings, "email.3@gmail.com"));
+        markUnclean();
+
+        try (MappedUserStore store = new MappedUserStore(directory)) {
+            assertEquals(first, store.get(0));
+            assertNull(store.get(1));
+            assertEquals(1, store.size());
+        }
+    }
+
+    @Test
+    void constructor_shouldNotOverwriteReferencedStrings_whenEndWasNotFlushed() throws Exception {
+        User kept = createUser(0, "email.1@gmail.com");
+        try (MappedUserStore store = new MappedUserStore(directory)) {
+            store.put(kept, NO_OP);
+        }
+        try (FileChannel channel = FileChannel.open(directory.resolve("users.strings"), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(Long.BYTES).putLong(0, Long.BYTES), 0);
+        }
+        markUnclean();
+
+        try (MappedUserStore store = new MappedUserStore(directory)) {
+            store.put(createUser(1, "email.2@gmail.com"), NO_OP);
+            assertEquals(kept, store.get(0));
+            assertEquals(2, store.size());
+        }
+    }
+
+    private void markUnclean() throws Exception {
+        Files.write(directory.resolve("users.state"), new byte[8]);
+    }
+
+    private static void corrupt(Path file, long position) throws Exception {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(1);
+            channel.read(buffer, position);
+            channel.write(buffer.put(0, (byte) (buffer.get(0) ^ 0x55)).rewind(), position);
+        }
+    }
+
+    private static long indexOf(Path file, String value) throws Exception {
+        byte[] bytes = Files.readAllBytes(file);
+        byte[] target = value.getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i + target.length <= bytes.length; i++) {
+            if (Arrays.equals(bytes, i, i + target.length, target, 0, target.length)) {
+                return i;
+            }
+        }
+        throw new AssertionError(value + " is not in " + file);
+    }
+
+    private static User createUser(int id, String email) {
+        return User.builder()
+                .id(id)
+                .email(email)
+                .firstName("Username1")
+                .lastName("Lastname1")
+                .birthdate(LocalDate.now().minusYears(26))
+                .address(null)
+                .phoneNumber("+340234212131")
+                .build();
+    }
+}
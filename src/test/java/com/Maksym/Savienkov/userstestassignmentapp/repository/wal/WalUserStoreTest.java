@@ -0,0 +1,201 @@
+package com.Maksym.Savienkov.userstestassignmentapp.repository.wal;
+
+import com.Maksym.Savienkov.userstestassignmentapp.model.User;
+import com.Maksym.Savienkov.userstestassignmentapp.repository.storage.ColumnarUserStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WalUserStoreTest {
+    private static final BiConsumer<User, User> NO_OP = (previous, current) -> { };
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void constructor_shouldReplayLoggedMutations_intoEmptyStore() throws Exception {
+        User kept = createUser(0, "email.1@gmail.com");
+        kept.setAddress(null);
+        User updated = createUser(3, "email.new@gmail.com");
+        try (WalUserStore store = open(Durability.SYNC)) {
+            store.put(kept, NO_OP);
+            store.put(createUser(1, "email.2@gmail.com"), NO_OP);
+            store.putAll(List.of(createUser(2, "email.3@gmail.com"), createUser(3, "email.old@gmail.com")), NO_OP);
+            store.put(updated, NO_OP);
+            store.remove(1, NO_OP);
+        }
+
+        try (WalUserStore store = open(Durability.SYNC)) {
+            assertEquals(kept, store.get(0));
+            assertNull(store.get(1));
+            assertEquals(updated, store.get(3));
+            assertArrayEquals(new int[]{0, 2, 3}, store.ids().toArray());
+        }
+    }
+
+    @Test
+    void constructor_shouldDropTornTail_andKeepAppending() throws Exception {
+        try (WalUserStore store = open(Durability.SYNC)) {
+            store.put(createUser(0, "email.1@gmail.com"), NO_OP);
+        }
+        Files.write(log(), new byte[]{0, 0, 0, 42, 1, 2}, StandardOpenOption.APPEND);
+
+        try (WalUserStore store = open(Durability.SYNC)) {
+            assertEquals(1, store.size());
+            store.put(createUser(1, "email.2@gmail.com"), NO_OP);
+        }
+
+        try (WalUserStore store = open(Durability.SYNC)) {
+            assertArrayEquals(new int[]{0, 1}, store.ids().toArray());
+        }
+    }
+
+    @Test
+    void put_shouldBeDurable_whenWritersShareBatches() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try (WalUserStore store = open(Durability.BATCHED)) {
+            List<Future<Boolean>> futures = IntStream.range(0, 500)
+                    .mapToObj(i -> executor.submit(() -> {
+                        store.put(createUser(i, "email." + i + "@gmail.com"), NO_OP);
+                        return true;
+                    }))
+                    .toList();
+            for (Future<Boolean> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        try (WalUserStore store = open(Durability.BATCHED)) {
+            assertEquals(500, store.size());
+            assertEquals("email.499@gmail.com", store.get(499).getEmail());
+        }
+    }
+
+    @Test
+    void snapshot_shouldCompactLog_andRecoverFromSnapshotPlusTail() throws Exception {
+        try (WalUserStore store = open(Durability.SYNC)) {
+            store.put(createUser(0, "email.1@gmail.com"), NO_OP);
+            store.put(createUser(1, "email.2@gmail.com"), NO_OP);
+            store.snapshot();
+            assertEquals(0, Files.size(log()));
+
+            store.put(createUser(1, "email.new@gmail.com"), NO_OP);
+            store.remove(0, NO_OP);
+        }
+
+        try (WalUserStore store = open(Durability.SYNC)) {
+            assertArrayEquals(new int[]{1}, store.ids().toArray());
+            assertEquals("email.new@gmail.com", store.get(1).getEmail());
+            assertEquals(2, store.getRecoveryStats().getSnapshotUsers());
+            assertEquals(2, store.getRecoveryStats().getReplayedRecords());
+
+            store.snapshot();
+            store.put(createUser(2, "email.3@gmail.com"), NO_OP);
+        }
+
+        try (WalUserStore store = open(Durability.SYNC)) {
+            assertArrayEquals(new int[]{1, 2}, store.ids().toArray());
+            assertEquals(4, store.getRecoveryStats().getSnapshotLsn());
+            assertEquals(1, store.getRecoveryStats().getReplayedRecords());
+        }
+    }
+
+    @Test
+    void replay_shouldReadLogOnce_andContinueLsnsAfterIt() throws Exception {
+        try (WriteAheadLog wal = new WriteAheadLog(log(), Durability.SYNC, Duration.ofMillis(1))) {
+            wal.awaitDurable(wal.appendPut(createUser(0, "email.1@gmail.com")));
+            wal.awaitDurable(wal.appendDelete(0));
+        }
+        try (WriteAheadLog wal = new WriteAheadLog(log(), Durability.SYNC, Duration.ofMillis(1))) {
+            assertEquals(3, wal.appendPut(createUser(1, "email.2@gmail.com")));
+        }
+
+        try (WriteAheadLog wal = new WriteAheadLog(log(), Durability.SYNC, Duration.ofMillis(1))) {
+            List<Long> replayed = new ArrayList<>();
+
+            assertEquals(2, wal.replay(1, record -> replayed.add(record.getLsn())));
+            assertEquals(List.of(2L, 3L), replayed);
+            assertEquals(3, wal.lastLsn());
+            assertThrows(IllegalStateException.class, () -> wal.replay(0, record -> { }));
+        }
+    }
+
+    @Test
+    void put_shouldLeaveStoreUnchanged_whenLogRejectsRecord() throws Exception {
+        User kept = createUser(0, "email.1@gmail.com");
+        WriteAheadLog wal = new WriteAheadLog(log(), Durability.SYNC, Duration.ofMillis(1));
+        WalUserStore store = new WalUserStore(new ColumnarUserStore(), wal,
+                new SnapshotFile(directory.resolve("users.snapshot")), Duration.ZERO);
+        store.put(kept, NO_OP);
+        wal.close();
+        List<User> changes = new ArrayList<>();
+
+        assertThrows(IllegalStateException.class,
+                () -> store.put(createUser(0, "email.new@gmail.com"), (previous, current) -> changes.add(current)));
+        assertThrows(IllegalStateException.class, () -> store.put(createUser(1, "email.2@gmail.com"), NO_OP));
+        assertThrows(IllegalStateException.class, () -> store.remove(0, NO_OP));
+
+        assertEquals(kept, store.get(0));
+        assertNull(store.get(1));
+        assertEquals(1, store.size());
+        assertTrue(changes.isEmpty());
+    }
+
+    @Test
+    void put_shouldLogUndo_whenChangeCallbackFails() throws Exception {
+        User kept = createUser(0, "email.1@gmail.com");
+        BiConsumer<User, User> failing = (previous, current) -> {
+            throw new IllegalStateException("Index update failed.");
+        };
+        try (WalUserStore store = open(Durability.SYNC)) {
+            store.put(kept, NO_OP);
+            assertThrows(IllegalStateException.class, () -> store.put(createUser(0, "email.new@gmail.com"), failing));
+            assertThrows(IllegalStateException.class, () -> store.put(createUser(1, "email.2@gmail.com"), failing));
+            assertEquals(kept, store.get(0));
+            assertNull(store.get(1));
+        }
+
+        try (WalUserStore store = open(Durability.SYNC)) {
+            assertEquals(kept, store.get(0));
+            assertArrayEquals(new int[]{0}, store.ids().toArray());
+        }
+    }
+
+    private WalUserStore open(Durability durability) throws Exception {
+        WriteAheadLog wal = new WriteAheadLog(log(), durability, Duration.ofMillis(1));
+        return new WalUserStore(new ColumnarUserStore(), wal, new SnapshotFile(directory.resolve("users.snapshot")),
+                Duration.ZERO);
+    }
+
+    private Path log() {
+        return directory.resolve("users.wal");
+    }
+
+    private static User createUser(int id, String email) {
+        return User.builder()
+                .id(id)
+                .email(email)
+                .firstName("Username1")
+                .lastName("Lastname1")
+                .birthdate(LocalDate.now().minusYears(26))
+                .address("Kyiv")
+                .phoneNumber("+340234212131")
+                .build();
+    }
+}
@@ -0,0 +1,165 @@
+package com.Maksym.Savienkov.userstestassignmentapp.service;
+
+import com.Maksym.Savienkov.userstestassignmentapp.dto.UserDto;
+import com.Maksym.Savienkov.userstestassignmentapp.exception.ConflictException;
+import com.Maksym.Savienkov.userstestassignmentapp.exception.DuplicateEmailException;
+import com.Maksym.Savienkov.userstestassignmentapp.exception.InvalidRequestException;
+import com.Maksym.Savienkov.userstestassignmentapp.exception.NotFoundException;
+import com.Maksym.Savienkov.userstestassignmentapp.exception.validation.UserValidationException;
+import com.Maksym.Savienkov.userstestassignmentapp.mapper.impl.UserMapperImpl;
+import com.Maksym.Savienkov.userstestassignmentapp.model.User;
+import com.Maksym.Savienkov.userstestassignmentapp.repository.ReactiveUserRepository;
+import com.Maksym.Savienkov.userstestassignmentapp.validator.UserValidator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ReactiveUserServiceTest {
+    @Mock
+    private ReactiveUserRepository repository;
+
+    @Mock
+    private UserValidator validator;
+
+    private ReactiveUserService userService;
+
+    @BeforeEach
+    void beforeEachSetUp() {
+        userService = new ReactiveUserService(
+                repository,
+                new UserMapperImpl(),
+                validator
+        );
+    }
+
+    @Test
+    public void create_shouldSaveUserAndEmitUserId_whenUserDtoIsValid() {
+        when(repository.save(createUserWithoutId())).thenReturn(Mono.just(0));
+
+        assertEquals(0, userService.create(createValidUserDto()).block());
+        verify(validator, times(1)).validate(any());
+    }
+
+    @Test
+    public void create_shouldNotTouchRepository_untilSubscribed() {
+        Mono<Integer> created = userService.create(createValidUserDto());
+
+        verifyNoInteractions(validator, repository);
+        assertNotNull(created);
+    }
+
+    @Test
+    public void create_shouldEmitErrors_whenUserDtoIsInvalidOrEmailIsTaken() {
+        UserValidationException userValidationException = new UserValidationException();
+        userValidationException.addMessage("message");
+        doThrow(userValidationException)
+                .doNothing()
+                .when(validator).validate(any(User.class));
+        when(repository.save(any(User.class)))
+                .thenReturn(Mono.error(new DuplicateEmailException("emailDto.1@gmail.com")));
+
+        String invalid = assertThrows(
+                InvalidRequestException.class,
+                () -> userService.create(createValidUserDto()).block()
+        ).getMessage();
+        assertEquals("Failed to create user. message", invalid);
+
+        String conflict = assertThrows(
+                ConflictException.class,
+                () -> userService.create(createValidUserDto()).block()
+        ).getMessage();
+        assertEquals("Failed to create user. User with email 'emailDto.1@gmail.com' already exists.", conflict);
+    }
+
+    @Test
+    public void streamByBirthdate_shouldEmitUsersAsRequested_whenFromIsBeforeTo() {
+        LocalDate from = LocalDate.of(2000, 1, 1);
+        LocalDate to = LocalDate.of(2001, 1, 1);
+        User first = createFirstUser();
+        User second = first.toBuilder().id(1).build();
+        when(repository.streamByBirthdate(from, to, null)).thenReturn(Flux.just(first, second));
+
+        assertEquals(List.of(first, second), userService.streamByBirthdate(from, to).collectList().block());
+        assertEquals(List.of(first), userService.streamByBirthdate(from, to).take(1).collectList().block());
+    }
+
+    @Test
+    public void streamByBirthdate_shouldEmitError_whenFromIsAfterTo() {
+        String message = assertThrows(
+                InvalidRequestException.class,
+                () -> userService.streamByBirthdate(LocalDate.of(2001, 1, 1), LocalDate.of(2000, 1, 1)).blockLast()
+        ).getMessage();
+        assertEquals("Failed to get users. 'from' cannot be after 'to'.", message);
+
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void update_shouldSaveUserWithSameId_whenUserExists() {
+        User expected = createUserWithoutId();
+        expected.setId(0);
+        when(repository.getById(0)).thenReturn(Mono.just(createFirstUser()));
+        when(repository.save(expected)).thenReturn(Mono.just(0));
+
+        assertDoesNotThrow(() -> userService.update(0, createValidUserDto()).block());
+        verify(repository, times(1)).save(expected);
+    }
+
+    @Test
+    void patch_shouldEmitNotFound_whenUserDoesNotExist() {
+        when(repository.getById(7)).thenReturn(Mono.empty());
+
+        String message = assertThrows(
+                NotFoundException.class,
+                () -> userService.patch(7, createValidUserDto()).block()
+        ).getMessage();
+        assertEquals("User with id '7' not found.", message);
+
+        verify(repository, never()).save(any());
+    }
+
+    private static UserDto createValidUserDto() {
+        return new UserDto(
+                "emailDto.1@gmail.com",
+                "UserDtoName1",
+                "LastnameDto1",
+                LocalDate.now().minusYears(22),
+                null,
+                null
+        );
+    }
+
+    private static User createUserWithoutId() {
+        return new User(
+                null,
+                "emailDto.1@gmail.com",
+                "UserDtoName1",
+                "LastnameDto1",
+                LocalDate.now().minusYears(22),
+                null,
+                null
+        );
+    }
+
+    private static User createFirstUser() {
+        return User.builder()
+                .id(0)
+                .email("email.1@gmail.com")
+                .firstName("Username1")
+                .lastName("Lastname1")
+                .birthdate(LocalDate.now().minusYears(26))
+                .build();
+    }
+}
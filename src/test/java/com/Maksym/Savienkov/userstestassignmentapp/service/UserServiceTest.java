@@ -1,13 +1,22 @@
 package com.Maksym.Savienkov.userstestassignmentapp.service;
 
 
+import com.Maksym.Savienkov.userstestassignmentapp.dto.UserBatchItemResultDto;
 import com.Maksym.Savienkov.userstestassignmentapp.dto.UserDto;
+import com.Maksym.Savienkov.userstestassignmentapp.exception.ConflictException;
+import com.Maksym.Savienkov.userstestassignmentapp.exception.DuplicateEmailException;
 import com.Maksym.Savienkov.userstestassignmentapp.exception.InvalidRequestException;
+import com.Maksym.Savienkov.userstestassignmentapp.exception.NotFoundException;
 import com.Maksym.Savienkov.userstestassignmentapp.exception.validation.UserValidationException;
 import com.Maksym.Savienkov.userstestassignmentapp.mapper.impl.UserMapperImpl;
+import com.Maksym.Savienkov.userstestassignmentapp.model.BirthdateCursor;
 import com.Maksym.Savienkov.userstestassignmentapp.model.User;
-import com.Maksym.Savienkov.userstestassignmentapp.repository.RepositoryStub;
+import com.Maksym.Savienkov.userstestassignmentapp.model.UserPage;
+import com.Maksym.Savienkov.userstestassignmentapp.model.UserQuery;
+import com.Maksym.Savienkov.userstestassignmentapp.repository.UserRepository;
 import com.Maksym.Savienkov.userstestassignmentapp.validator.UserValidator;
+import com.Maksym.Savienkov.userstestassignmentapp.validator.ValidationResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -15,28 +24,38 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 public class UserServiceTest {
     @Mock
-    private RepositoryStub repository;
+    private UserRepository repository;
 
     @Mock
     private UserValidator validator;
 
+    private SimpleMeterRegistry meterRegistry;
+
     private UserService userService;
 
     @BeforeEach
     void beforeEachSetUp() {
+        meterRegistry = new SimpleMeterRegistry();
         userService = new UserService(
                 repository,
                 new UserMapperImpl(),
-                validator
+                validator,
+                new UserServiceMetrics(meterRegistry),
+                Runnable::run
         );
     }
 
@@ -67,7 +86,180 @@ public class UserServiceTest {
     }
 
     @Test
-    public void getByBirthdate_shouldGetListOfUsersFilteredByBirthdate_whenFromIsBeforeOrEqualTo() {
+    public void create_shouldRecordOperationOutcomeAndValidationVerdict() {
+        UserValidationException userValidationException = new UserValidationException();
+        userValidationException.addMessage("message");
+        doNothing()
+                .doThrow(userValidationException)
+                .when(validator).validate(any(User.class));
+
+        userService.create(createValidUserDto());
+        assertThrows(InvalidRequestException.class, () -> userService.create(createValidUserDto()));
+
+        assertEquals(1, meterRegistry.get(UserServiceMetrics.OPERATIONS)
+                .tags("operation", "create", "outcome", "success").timer().count());
+        assertEquals(1, meterRegistry.get(UserServiceMetrics.OPERATIONS)
+                .tags("operation", "create", "outcome", "invalid").timer().count());
+        assertEquals(1, meterRegistry.get(UserServiceMetrics.VALIDATIONS)
+                .tags("operation", "create", "outcome", "valid").counter().count());
+        assertEquals(1, meterRegistry.get(UserServiceMetrics.VALIDATIONS)
+                .tags("operation", "create", "outcome", "invalid").counter().count());
+    }
+
+    @Test
+    public void streamByBirthdate_shouldRecordOperation_whenStreamIsClosed() {
+        LocalDate from = LocalDate.of(2000, 1, 1);
+        LocalDate to = LocalDate.of(2001, 1, 1);
+        when(repository.streamByBirthdate(from, to, null)).thenReturn(Stream.of(createFirstUser()));
+
+        Stream<User> users = userService.streamByBirthdate(from, to);
+        assertEquals(0, meterRegistry.find(UserServiceMetrics.OPERATIONS)
+                .tag("operation", "stream_by_birthdate").timers().size());
+
+        assertEquals(1, users.count());
+        users.close();
+        assertEquals(1, meterRegistry.get(UserServiceMetrics.OPERATIONS)
+                .tags("operation", "stream_by_birthdate", "outcome", "success").timer().count());
+    }
+
+    @Test
+    public void create_shouldThrowConflict_whenEmailIsTaken() {
+        when(repository.save(any(User.class)))
+                .thenThrow(new DuplicateEmailException("emailDto.1@gmail.com"));
+
+        String message = assertThrows(
+                ConflictException.class,
+                () -> userService.create(createValidUserDto())
+        ).getMessage();
+        assertEquals("Failed to create user. User with email 'emailDto.1@gmail.com' already exists.", message);
+    }
+
+    @Test
+    public void getByEmail_shouldThrowNotFound_whenNoUserHasEmail() {
+        when(repository.getByEmail("email.1@gmail.com"))
+                .thenReturn(null);
+
+        String message = assertThrows(
+                NotFoundException.class,
+                () -> userService.getByEmail("email.1@gmail.com")
+        ).getMessage();
+        assertEquals("User with email 'email.1@gmail.com' not found.", message);
+    }
+
+    @Test
+    public void getByPhoneNumber_shouldThrowException_whenPhoneNumberHasNoDigits() {
+        assertThrows(InvalidRequestException.class, () -> userService.getByPhoneNumber("+()-"));
+
+        verify(repository, never()).getByPhoneNumber(any());
+    }
+
+    @Test
+    public void searchByName_shouldThrowException_whenQueryIsBlankOrLimitIsOutOfBounds() {
+        assertThrows(InvalidRequestException.class, () -> userService.searchByName(" ", 10));
+        assertThrows(InvalidRequestException.class, () -> userService.searchByName("john", UserService.MAX_PAGE_LIMIT + 1));
+
+        verify(repository, never()).searchByName(any(), anyInt());
+    }
+
+    @Test
+    public void query_shouldThrowException_whenBirthdateRangeIsHalfOpenOrReversed() {
+        UserQuery halfOpen = UserQuery.builder().birthdateFrom(LocalDate.of(2000, 1, 1)).build();
+        UserQuery reversed = UserQuery.builder()
+                .birthdateFrom(LocalDate.of(2000, 1, 1))
+                .birthdateTo(LocalDate.of(1999, 1, 1))
+                .build();
+
+        assertThrows(InvalidRequestException.class, () -> userService.query(halfOpen, 10));
+        String message = assertThrows(InvalidRequestException.class, () -> userService.query(reversed, 10)).getMessage();
+        assertEquals("Failed to query users. 'birthdateFrom' cannot be after 'birthdateTo'.", message);
+        verify(repository, never()).query(any(), anyInt());
+    }
+
+    @Test
+    public void getUpcomingBirthdays_shouldThrowException_whenWindowIsOutOfBounds() {
+        LocalDate today = LocalDate.now();
+
+        assertThrows(InvalidRequestException.class, () -> userService.getUpcomingBirthdays(today, 0, 10));
+        String message = assertThrows(
+                InvalidRequestException.class,
+                () -> userService.getUpcomingBirthdays(today, UserService.MAX_BIRTHDAY_WINDOW_DAYS + 1, 10)
+        ).getMessage();
+        assertEquals("Failed to get upcoming birthdays. 'days' must be between 1 and 366.", message);
+        verify(repository, never()).getUpcomingBirthdays(any(), anyInt(), anyInt());
+    }
+
+    @Test
+    public void createAll_shouldSaveValidUsersInOneBatchAndReportInvalidOnes() {
+        UserDto invalidUserDto = createValidUserDto();
+        invalidUserDto.setFirstName("");
+        ValidationResult invalid = new ValidationResult();
+        invalid.addMessage("message");
+
+        when(validator.check(any()))
+                .thenAnswer(invocation -> "".equals(invocation.<User>getArgument(0).getFirstName())
+                        ? invalid
+                        : new ValidationResult());
+        when(repository.saveAll(List.of(createUserWithoutId(), createUserWithoutId())))
+                .thenReturn(List.of(7, 8));
+
+        List<UserBatchItemResultDto> results = userService.createAll(
+                List.of(createValidUserDto(), invalidUserDto, createValidUserDto())
+        );
+
+        assertEquals(
+                List.of(
+                        UserBatchItemResultDto.created(0, 7),
+                        UserBatchItemResultDto.rejected(1, List.of("message")),
+                        UserBatchItemResultDto.created(2, 8)
+                ),
+                results
+        );
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    public void createAll_shouldValidateSlicesOnTaskExecutorInOrder_whenBatchIsLarge() {
+        List<Runnable> tasks = new ArrayList<>();
+        userService = new UserService(
+                repository,
+                new UserMapperImpl(),
+                validator,
+                new UserServiceMetrics(meterRegistry),
+                task -> {
+                    tasks.add(task);
+                    task.run();
+                }
+        );
+        int size = UserService.VALIDATION_SLICE_SIZE * 2 + 1;
+        List<UserDto> userDtos = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            UserDto userDto = createValidUserDto();
+            userDto.setFirstName(i == size - 1 ? "" : "Username" + i);
+            userDtos.add(userDto);
+        }
+        ValidationResult invalid = new ValidationResult();
+        invalid.addMessage("message");
+
+        when(validator.check(any()))
+                .thenAnswer(invocation -> "".equals(invocation.<User>getArgument(0).getFirstName())
+                        ? invalid
+                        : new ValidationResult());
+        when(repository.saveAll(any())).thenAnswer(invocation -> IntStream
+                .range(0, invocation.<List<User>>getArgument(0).size())
+                .boxed()
+                .toList());
+
+        List<UserBatchItemResultDto> results = userService.createAll(userDtos);
+
+        assertEquals(3, tasks.size());
+        assertEquals(UserBatchItemResultDto.created(size - 2, size - 2), results.get(size - 2));
+        assertEquals(UserBatchItemResultDto.rejected(size - 1, List.of("message")), results.get(size - 1));
+    }
+
+    @Test
+    public void getByBirthdate_shouldGetListOfUsersFromBirthdateIndex_whenFromIsBeforeOrEqualTo() {
+        LocalDate from = LocalDate.now().minusYears(26);
+        LocalDate to = LocalDate.now().minusYears(18);
         List<User> expectedUsers = List.of(
                 User.builder()
                         .id(1)
@@ -86,50 +278,60 @@ public class UserServiceTest {
                         .build()
         );
 
-        when(repository.getAll())
-                .thenReturn(
-                        List.of(
-                                User.builder()
-                                        .id(1)
-                                        .email("email.1@gmail.com")
-                                        .firstName("Username1")
-                                        .lastName("Lastname1")
-                                        .birthdate(LocalDate.now().minusYears(26))
-                                        .build(),
-                                User.builder()
-                                        .id(2)
-                                        .email("email.2@gmail.com")
-                                        .firstName("Username2")
-                                        .lastName("Lastname2")
-                                        .birthdate(LocalDate.now().minusYears(48))
-                                        .address("some address 2")
-                                        .build(),
-                                User.builder()
-                                        .id(3)
-                                        .email("email.3@gmail.com")
-                                        .firstName("Username3")
-                                        .lastName("Lastname3")
-                                        .birthdate(LocalDate.now().minusYears(34))
-                                        .address("some address 3")
-                                        .phoneNumber("+(380)96-342-43-54")
-                                        .build(),
-                                User.builder()
-                                        .id(4)
-                                        .email("email.4@gmail.com")
-                                        .firstName("Username4")
-                                        .lastName("Lastname4")
-                                        .birthdate(LocalDate.now().minusYears(18))
-                                        .phoneNumber("+(380)95-123-32-23")
-                                        .build()
-                        )
-                );
-
-        List<User> actualUsers = userService.getByBirthdate(
-                LocalDate.now().minusYears(26),
-                LocalDate.now().minusYears(18)
-        );
+        when(repository.getByBirthdate(from, to, null, 11))
+                .thenReturn(expectedUsers);
 
-        assertEquals(expectedUsers, actualUsers);
+        UserPage page = userService.getByBirthdate(from, to, 10, null);
+
+        assertEquals(expectedUsers, page.getUsers());
+        assertFalse(page.hasNext());
+        verify(repository, never()).getAll();
+    }
+
+    @Test
+    public void getByBirthdate_shouldReturnNextCursor_whenMoreUsersThanLimit() {
+        LocalDate from = LocalDate.now().minusYears(26);
+        LocalDate to = LocalDate.now().minusYears(18);
+        User first = createFirstUser();
+        User second = createFirstUser().toBuilder().id(1).build();
+        BirthdateCursor after = new BirthdateCursor(from.minusDays(1), 7);
+
+        when(repository.getByBirthdate(from, to, after, 2))
+                .thenReturn(List.of(first, second));
+
+        UserPage page = userService.getByBirthdate(from, to, 1, after.encode());
+
+        assertEquals(List.of(first), page.getUsers());
+        assertEquals(BirthdateCursor.of(first), page.getNext());
+    }
+
+    @Test
+    public void getByBirthdate_shouldThrowException_whenLimitIsOutOfBounds() {
+        String message = assertThrows(
+                InvalidRequestException.class,
+                () -> userService.getByBirthdate(
+                        LocalDate.now().minusYears(26),
+                        LocalDate.now().minusYears(18),
+                        UserService.MAX_PAGE_LIMIT + 1,
+                        null
+                )
+        ).getMessage();
+        assertEquals("Failed to get users. 'limit' must be between 1 and 1000.", message);
+        verify(repository, never()).getByBirthdate(any(), any(), any(), anyInt());
+    }
+
+    @Test
+    public void getByBirthdate_shouldThrowException_whenCursorIsInvalid() {
+        String message = assertThrows(
+                InvalidRequestException.class,
+                () -> userService.getByBirthdate(
+                        LocalDate.now().minusYears(26),
+                        LocalDate.now().minusYears(18),
+                        10,
+                        "not-a-cursor"
+                )
+        ).getMessage();
+        assertEquals("Failed to get users. Cursor 'not-a-cursor' is invalid.", message);
     }
 
     @Test
@@ -138,11 +340,13 @@ public class UserServiceTest {
                 InvalidRequestException.class,
                 () -> userService.getByBirthdate(
                         LocalDate.now().minusYears(18),
-                        LocalDate.now().minusYears(26)
+                        LocalDate.now().minusYears(26),
+                        10,
+                        null
                 )
         ).getMessage();
         assertEquals("Failed to get users. 'from' cannot be after 'to'.", message);
-        verify(repository, never()).getAll();
+        verify(repository, never()).getByBirthdate(any(), any(), any(), anyInt());
     }
 
     @Test
@@ -163,6 +367,15 @@ public class UserServiceTest {
         verify(repository, times(1)).save(updatedFirstUser);
     }
 
+    @Test
+    public void existsById_shouldReportWhetherUserIsStored() {
+        when(repository.getByid(42)).thenReturn(createFirstUser());
+
+        assertTrue(userService.existsById(42));
+        assertFalse(userService.existsById(7));
+        assertFalse(userService.existsById(null));
+    }
+
     @Test
     public void update_shouldThrowException_whenUserDtoIsInvalid() {
         UserValidationException userValidationException = new UserValidationException();
@@ -217,6 +430,52 @@ public class UserServiceTest {
         verify(repository, never()).save(any());
     }
 
+    @Test
+    void update_shouldUpdateUser_whenIdIsNotZero() {
+        User stored = createFirstUser().toBuilder().id(42).build();
+        when(repository.getByid(42))
+                .thenReturn(stored);
+
+        assertDoesNotThrow(() -> userService.update(42, createValidUserDto()));
+
+        verify(repository, times(1)).save(argThat(user -> user.getId() == 42
+                && user.getEmail().equals("emailDto.1@gmail.com")));
+        assertEquals(createFirstUser().getEmail(), stored.getEmail());
+    }
+
+    @Test
+    void update_shouldThrowNotFound_whenUserDoesNotExist() {
+        String message = assertThrows(
+                NotFoundException.class,
+                () -> userService.update(7, createValidUserDto())
+        ).getMessage();
+
+        assertEquals("User with id '7' not found.", message);
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void patch_shouldPatchUser_whenIdIsNotZero() {
+        when(repository.getByid(42))
+                .thenReturn(createFirstUser().toBuilder().id(42).build());
+
+        assertDoesNotThrow(() -> userService.patch(42, createValidUserDto()));
+
+        verify(repository, times(1)).save(argThat(user -> user.getId() == 42
+                && user.getFirstName().equals("UserDtoName1")));
+    }
+
+    @Test
+    void patch_shouldThrowNotFound_whenUserDoesNotExist() {
+        String message = assertThrows(
+                NotFoundException.class,
+                () -> userService.patch(7, createValidUserDto())
+        ).getMessage();
+
+        assertEquals("User with id '7' not found.", message);
+        verify(repository, never()).save(any());
+    }
+
     @Test
     public void delete_shouldDeleteUser() {
         assertDoesNotThrow(() -> userService.delete(0));
@@ -11,6 +11,9 @@ import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 
 import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -61,6 +64,37 @@ public class UserValidatorTest {
                 + "Birthdate cannot be null.", message);
     }
 
+    @Test
+    void validate_shouldNotCarryMessagesOverFromPreviousCalls() {
+        User invalidUser = createValidUser();
+        invalidUser.setFirstName("");
+
+        assertThrows(UserValidationException.class, () -> validator.validate(invalidUser));
+        String message = assertThrows(
+                UserValidationException.class,
+                () -> validator.validate(invalidUser)
+        ).getMessage();
+
+        assertEquals("User first name cannot be empty.", message);
+        assertDoesNotThrow(() -> validator.validate(createValidUser()));
+    }
+
+    @Test
+    void check_shouldCollectViolationsWithoutThrowing() {
+        User invalidUser = createValidUser();
+        invalidUser.setLastName("not blank");
+        invalidUser.setPhoneNumber("234223");
+
+        ValidationResult result = validator.check(invalidUser);
+
+        assertFalse(result.isValid());
+        assertEquals(
+                List.of("User last name cannot contain spaces.", "User phone number format is invalid."),
+                result.getMessages()
+        );
+        assertTrue(validator.check(createValidUser()).isValid());
+    }
+
     private static Arguments[] provideInvalidEmailData() {
         return new Arguments[]{
                 Arguments.of(""),
@@ -95,6 +129,47 @@ public class UserValidatorTest {
         );
     }
 
+    private static Arguments[] provideValidEmailData() {
+        return new Arguments[]{
+                Arguments.of("email.1@gmail.com"),
+                Arguments.of("a@b.co"),
+                Arguments.of("first.last@mail.example.org"),
+                Arguments.of("UPPER.case@Example.COM")
+        };
+    }
+
+    @ParameterizedTest
+    @MethodSource("provideValidEmailData")
+    @DisplayName("Should accept user with valid Email")
+    void validate_shouldNotThrowException_whenEmailIsValid(String email) {
+        User user = createValidUser();
+        user.setEmail(email);
+
+        assertDoesNotThrow(() -> validator.validate(user));
+    }
+
+    @Test
+    void validate_shouldJudgeEmailFormatLikeReferencePattern() {
+        Pattern referencePattern = Pattern.compile(
+                "^[A-Za-z0-9_-]+(\\.[A-Za-z0-9_-]+){0,10}@[A-Za-z0-9-]+(\\.[A-Za-z0-9-]+){0,10}(\\.[A-Za-z]{2,})$"
+        );
+        String alphabet = "aZ9_-.@ $";
+        Random random = new Random(42);
+        User user = createValidUser();
+
+        for (int i = 0; i < 20_000; i++) {
+            StringBuilder email = new StringBuilder();
+            int length = random.nextInt(12);
+            for (int j = 0; j < length; j++) {
+                email.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            user.setEmail(email.toString());
+
+            boolean formatInvalid = validator.check(user).getMessages().contains("User email format is invalid.");
+            assertEquals(!referencePattern.matcher(email).matches(), formatInvalid, email.toString());
+        }
+    }
+
     private static Arguments[] provideInvalidNameData() {
         return new Arguments[]{
                 Arguments.of(""),